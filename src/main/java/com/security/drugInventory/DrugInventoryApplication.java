@@ -2,8 +2,10 @@ package com.security.drugInventory;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class DrugInventoryApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,25 @@
+package com.security.drugInventory.admin;
+
+import com.security.drugInventory.config.SigningKeyring;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/keys")
+@RequiredArgsConstructor
+public class SigningKeyController {
+
+    private final SigningKeyring signingKeyring;
+
+    // Rotate without a restart: the previously published next key starts signing,
+    // and the old active key keeps verifying until its tokens expire
+    @PostMapping("/rotate")
+    public ResponseEntity<Map<String, String>> rotate() {
+        return ResponseEntity.ok(Map.of("activeKid", signingKeyring.rotate().kid()));
+    }
+}
@@ -0,0 +1,33 @@
+package com.security.drugInventory.admin;
+
+import com.security.drugInventory.user.Role;
+import com.security.drugInventory.user.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Exported view of a user; deliberately without the password hash
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserExportRow {
+    private Long id;
+    private String email;
+    private String firstname;
+    private String lastname;
+    private int age;
+    private Role role;
+
+    public static UserExportRow of(User user) {
+        return UserExportRow.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .firstname(user.getFirstname())
+                .lastname(user.getLastname())
+                .age(user.getAge())
+                .role(user.getRole())
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.security.drugInventory.admin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.drugInventory.config.NdjsonWriter;
+import com.security.drugInventory.user.User;
+import com.security.drugInventory.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+// Streams every user as NDJSON (one JSON object per line) while the rows are read from the cursor.
+// Memory stays flat regardless of the row count: each entity is detached once copied into its row, and
+// NdjsonWriter hands bytes to the output stream as they are produced instead of building the whole body.
+@Service
+public class UserExportService {
+
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final NdjsonWriter<UserExportRow> rowWriter;
+
+    public UserExportService(UserRepository userRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.rowWriter = new NdjsonWriter<>(objectMapper, UserExportRow.class);
+    }
+
+    // Returns the number of users written
+    @Transactional(readOnly = true)
+    public long export(OutputStream out) throws IOException {
+        try (Stream<User> users = userRepository.streamAll()) {
+            return rowWriter.write(users.map(this::detachedRow), out);
+        }
+    }
+
+    private UserExportRow detachedRow(User user) {
+        UserExportRow row = UserExportRow.of(user);
+        entityManager.detach(user);
+        return row;
+    }
+}
@@ -0,0 +1,31 @@
+package com.security.drugInventory.admin;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/v1/admin/users")
+@RequiredArgsConstructor
+public class UserImportController {
+
+    private final UserImportService userImportService;
+
+    // Body is a JSON array of register requests; it is parsed as a stream, not bound up front
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UserImportResponse> importJson(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(userImportService.importJson(request.getInputStream()));
+    }
+
+    // Body is CSV with a header row naming the email, password, firstname, lastname and (optional) role columns
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<UserImportResponse> importCsv(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(userImportService.importCsv(request.getReader()));
+    }
+}
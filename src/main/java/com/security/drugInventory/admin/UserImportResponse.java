@@ -0,0 +1,18 @@
+package com.security.drugInventory.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResponse {
+    private int created;
+    private int rejected;
+    private List<UserImportRow> rows;
+}
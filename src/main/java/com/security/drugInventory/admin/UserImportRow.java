@@ -0,0 +1,26 @@
+package com.security.drugInventory.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportRow {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+
+    // 1-based position of the record in the uploaded array or CSV (header excluded)
+    private int row;
+    private String email;
+    private Status status;
+    private String message;
+}
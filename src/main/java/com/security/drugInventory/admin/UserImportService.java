@@ -0,0 +1,272 @@
+package com.security.drugInventory.admin;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.drugInventory.audit.AuditTrail;
+import com.security.drugInventory.auth.RegisterRequest;
+import com.security.drugInventory.config.BoundedPasswordEncoder;
+import com.security.drugInventory.user.Role;
+import com.security.drugInventory.user.User;
+import com.security.drugInventory.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Bulk registration for onboarding. Records are read from the request as a stream and processed in chunks:
+// duplicates are found with one IN query per chunk, passwords are hashed in parallel on the hashing pool,
+// and each chunk is inserted in its own transaction as JDBC batches. Every record gets a result row.
+@Slf4j
+@Service
+public class UserImportService {
+
+    private final UserRepository userRepository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditTrail auditTrail;
+    private final int chunkSize;
+
+    public UserImportService(UserRepository userRepository,
+                             BoundedPasswordEncoder passwordEncoder,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             AuditTrail auditTrail,
+                             @Value("${admin.user-import.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.auditTrail = auditTrail;
+        this.chunkSize = chunkSize;
+    }
+
+    public UserImportResponse importJson(InputStream body) throws IOException {
+        Importer importer = new Importer();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expected a JSON array of users");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                importer.add(objectMapper.readValue(parser, RegisterRequest.class));
+            }
+        } catch (JsonProcessingException e) {
+            // Records before the broken one are still imported; the rest of the body is unreadable
+            importer.reject("Malformed JSON: " + e.getOriginalMessage());
+        }
+        return importer.finish();
+    }
+
+    public UserImportResponse importCsv(BufferedReader body) throws IOException {
+        String header = body.readLine();
+        if (header == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing CSV header row");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        String[] names = split(header);
+        for (int i = 0; i < names.length; i++) {
+            columns.put(names[i].toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("email") || !columns.containsKey("password")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header must name email and password columns");
+        }
+
+        Importer importer = new Importer();
+        String line;
+        while ((line = body.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] fields = split(line);
+            importer.add(RegisterRequest.builder()
+                    .email(field(fields, columns, "email"))
+                    .password(field(fields, columns, "password"))
+                    .firstname(field(fields, columns, "firstname"))
+                    .lastname(field(fields, columns, "lastname"))
+                    .role(field(fields, columns, "role"))
+                    .build());
+        }
+        return importer.finish();
+    }
+
+    // Plain comma-separated values; surrounding quotes are stripped, embedded commas are not supported
+    private static String[] split(String line) {
+        String[] fields = line.split(",", -1);
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i].trim();
+            if (field.length() >= 2 && field.startsWith("\"") && field.endsWith("\"")) {
+                field = field.substring(1, field.length() - 1);
+            }
+            fields[i] = field;
+        }
+        return fields;
+    }
+
+    private static String field(String[] fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.length || fields[index].isEmpty()) {
+            return null;
+        }
+        return fields[index];
+    }
+
+    private record Pending(UserImportRow row, RegisterRequest request, Role role) {
+    }
+
+    // Collects records into chunks; one instance per upload
+    private final class Importer {
+
+        private final List<UserImportRow> rows = new ArrayList<>();
+        private final List<Pending> pending = new ArrayList<>();
+        // Emails seen earlier in this upload, so a repeated record is reported instead of failing its chunk
+        private final Set<String> seenEmails = new HashSet<>();
+        private int created;
+
+        void add(RegisterRequest request) {
+            UserImportRow row = UserImportRow.builder()
+                    .row(rows.size() + 1)
+                    .email(User.normalizeEmail(request.getEmail()))
+                    .build();
+            rows.add(row);
+
+            Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                mark(row, UserImportRow.Status.INVALID, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            Role role;
+            try {
+                role = request.getRole() != null ? Role.valueOf(request.getRole().toUpperCase(Locale.ROOT)) : Role.USER;
+            } catch (IllegalArgumentException e) {
+                mark(row, UserImportRow.Status.INVALID, "Unknown role: " + request.getRole());
+                return;
+            }
+            if (!seenEmails.add(row.getEmail())) {
+                mark(row, UserImportRow.Status.DUPLICATE, "Email appears earlier in this import");
+                return;
+            }
+            pending.add(new Pending(row, request, role));
+            if (pending.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(String message) {
+            rows.add(UserImportRow.builder()
+                    .row(rows.size() + 1)
+                    .status(UserImportRow.Status.INVALID)
+                    .message(message)
+                    .build());
+        }
+
+        UserImportResponse finish() {
+            flush();
+            log.info("User import finished: {} created, {} rejected", created, rows.size() - created);
+            return UserImportResponse.builder()
+                    .created(created)
+                    .rejected(rows.size() - created)
+                    .rows(rows)
+                    .build();
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Set<String> existing = userRepository.findExistingEmails(
+                    pending.stream().map(p -> p.row().getEmail()).toList());
+            List<Pending> accepted = new ArrayList<>(pending.size());
+            for (Pending p : pending) {
+                if (existing.contains(p.row().getEmail())) {
+                    mark(p.row(), UserImportRow.Status.DUPLICATE, "User already exists");
+                } else {
+                    accepted.add(p);
+                }
+            }
+            pending.clear();
+            if (accepted.isEmpty()) {
+                return;
+            }
+
+            List<String> hashes = passwordEncoder.encodeAll(
+                    accepted.stream().map(p -> p.request().getPassword()).toList());
+            List<User> users = new ArrayList<>(accepted.size());
+            for (int i = 0; i < accepted.size(); i++) {
+                RegisterRequest request = accepted.get(i).request();
+                users.add(User.builder()
+                        .firstname(request.getFirstname())
+                        .lastname(request.getLastname())
+                        .email(request.getEmail())
+                        .password(hashes.get(i))
+                        .role(accepted.get(i).role())
+                        .build());
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    userRepository.saveAll(users);
+                    // Send the batched inserts now and drop the entities, so memory stays flat across chunks
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                auditTrail.registered(users);
+                accepted.forEach(p -> mark(p.row(), UserImportRow.Status.CREATED, null));
+                created += accepted.size();
+            } catch (DataIntegrityViolationException e) {
+                // Someone registered one of these emails since the pre-check; retry the chunk row by row
+                for (int i = 0; i < accepted.size(); i++) {
+                    insertOne(accepted.get(i).row(), users.get(i));
+                }
+            }
+        }
+
+        private void insertOne(UserImportRow row, User user) {
+            user.setId(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> userRepository.saveAndFlush(user));
+                auditTrail.registered(List.of(user));
+                mark(row, UserImportRow.Status.CREATED, null);
+                created++;
+            } catch (DataIntegrityViolationException e) {
+                mark(row, UserImportRow.Status.DUPLICATE, "User already exists");
+            } catch (RuntimeException e) {
+                mark(row, UserImportRow.Status.FAILED, e.getMessage());
+            }
+        }
+
+        private void mark(UserImportRow row, UserImportRow.Status status, String message) {
+            row.setStatus(status);
+            row.setMessage(message);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.security.drugInventory.admin;
+
+import com.security.drugInventory.auth.AuthenticationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/users")
+@RequiredArgsConstructor
+public class UserTokenController {
+
+    private final AuthenticationService authenticationService;
+
+    // Sign the user out everywhere: tokens issued so far stop working, new logins are unaffected
+    @PostMapping("/{email}/revoke-tokens")
+    public ResponseEntity<Void> revokeTokens(@PathVariable String email) {
+        authenticationService.revokeAllTokens(email);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.security.drugInventory.audit;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/v1/admin/audit")
+@RequiredArgsConstructor
+public class AuditController {
+
+    private final AuditExportService auditExportService;
+
+    // Records from (inclusive) to (exclusive, default now), oldest first, streamed as NDJSON
+    @GetMapping
+    public void export(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                       HttpServletResponse response) throws IOException {
+        Instant until = to != null ? to : Instant.now();
+        if (until.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "to must not be before from");
+        }
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        auditExportService.export(from, until, response.getOutputStream());
+    }
+}
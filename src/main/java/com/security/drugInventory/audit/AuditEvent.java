@@ -0,0 +1,42 @@
+package com.security.drugInventory.audit;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Audit records stored by JdbcAuditSink; mapped so the schema is managed with the other tables
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "audit_event", indexes = @Index(name = "idx_audit_event_occurred_at", columnList = "occurred_at"))
+public class AuditEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private AuditEventType type;
+    @Column(nullable = false)
+    private String actor;
+    @Column(name = "subject_id", nullable = false)
+    private long subjectId;
+    @Column(nullable = false)
+    private long amount;
+}
@@ -0,0 +1,17 @@
+package com.security.drugInventory.audit;
+
+// Stored by ordinal in the audit log segments, so new types go at the end
+public enum AuditEventType {
+    LOGIN_SUCCEEDED,
+    LOGIN_FAILED,
+    REGISTERED,
+    STOCK_RECEIVED,
+    STOCK_DISPENSED,
+    STOCK_ADJUSTED,
+    STOCK_WRITTEN_OFF,
+    // Bearer tokens turned away by JWTAuthenticationFilter
+    TOKEN_EXPIRED,
+    TOKEN_INVALID,
+    TOKEN_REVOKED,
+    TOKEN_UNKNOWN_USER
+}
@@ -0,0 +1,30 @@
+package com.security.drugInventory.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.drugInventory.config.NdjsonWriter;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+// Streams audit records in a time range as NDJSON while the segments are read, one segment mapped at a time
+@Service
+public class AuditExportService {
+
+    private final AuditTrail auditTrail;
+    private final NdjsonWriter<AuditRecord> rowWriter;
+
+    public AuditExportService(AuditTrail auditTrail, ObjectMapper objectMapper) {
+        this.auditTrail = auditTrail;
+        this.rowWriter = new NdjsonWriter<>(objectMapper, AuditRecord.class);
+    }
+
+    // Returns the number of records written
+    public long export(Instant from, Instant to, OutputStream out) throws IOException {
+        try (Stream<AuditRecord> records = auditTrail.read(from, to)) {
+            return rowWriter.write(records, out);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.security.drugInventory.audit;
+
+import com.security.drugInventory.config.GroupCommit;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32C;
+
+// Append-only audit trail in a directory of fixed-size, memory-mapped segment files. An append copies one compact
+// binary record into the mapped segment under a short lock, with no system call; the GroupCommit writer forces
+// whatever has accumulated to disk, so concurrent callers waiting for durability share a single msync.
+// A segment is sealed and a new one started when the next record does not fit or the roll interval has passed;
+// sealed segments are cut back to their records. Readers map only the bytes written so far, never the part a
+// later cut removes, which would fault on access. Segment files are named after the time of their first record and
+// timestamps never go backwards, so a time-range read opens only the segments that overlap the range.
+// Every record carries a CRC32C; a torn tail from a crash is detected and cut off on the next start.
+// Without a directory only sequence numbers are handed out and nothing is written.
+@Slf4j
+public class AuditLog implements Closeable {
+
+    // length, crc, timestamp, type, subject id, amount, actor length; followed by the actor in UTF-8
+    static final int FIXED_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + 1 + Long.BYTES + Long.BYTES + 1;
+    static final int MAX_ACTOR_BYTES = 255;
+    private static final String SUFFIX = ".audit";
+    private static final AuditEventType[] TYPES = AuditEventType.values();
+
+    private static final class Segment {
+        final Path path;
+        final long startMillis;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        // Guarded by the GroupCommit lock
+        int position;
+        // Only touched by the writer thread
+        int forced;
+        boolean metadataForced;
+
+        Segment(Path path, long startMillis, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.startMillis = startMillis;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        void force(int to) throws IOException {
+            if (to > forced) {
+                buffer.force(forced, to - forced);
+                forced = to;
+            }
+            // Once per segment, so the new file's length survives a crash as well as its contents
+            if (!metadataForced) {
+                channel.force(true);
+                metadataForced = true;
+            }
+        }
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long rollIntervalMillis;
+    private final LongSupplier clock;
+    private final GroupCommit groupCommit;
+    // The rest is guarded by the GroupCommit lock
+    private final List<Segment> sealed = new ArrayList<>();
+    // Segments still at their full mapped size, until the writer cuts them back
+    private final Map<Path, Segment> untrimmed = new HashMap<>();
+    private Segment current;
+    private long lastSegmentStart;
+    private long lastTimestamp;
+
+    public AuditLog(Path directory, int segmentBytes, Duration rollInterval) {
+        this(directory, segmentBytes, rollInterval, System::currentTimeMillis);
+    }
+
+    public AuditLog(Path directory, int segmentBytes, Duration rollInterval, LongSupplier clock) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.rollIntervalMillis = rollInterval.toMillis();
+        this.clock = clock;
+        this.groupCommit = new GroupCommit("Audit log " + directory, 0);
+        if (directory == null) {
+            return;
+        }
+        if (segmentBytes < FIXED_BYTES + MAX_ACTOR_BYTES) {
+            throw new IllegalArgumentException("Audit segments must hold at least one record: " + segmentBytes);
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments(directory);
+            if (!segments.isEmpty()) {
+                recoverLast(segments.get(segments.size() - 1));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open audit log " + directory, e);
+        }
+        groupCommit.start("audit-log-writer", this::takeBatch);
+    }
+
+    public static AuditLog disabled() {
+        return new AuditLog(null, 0, Duration.ZERO);
+    }
+
+    // Returns the record's sequence number, counted from 1 in each process.
+    // The record is durable once awaitDurable(sequence) returns.
+    public long append(AuditEventType type, String actor, long subjectId, long amount) {
+        return append(clock.getAsLong(), type, actor, subjectId, amount);
+    }
+
+    // For records stamped when they happened rather than when they are written; a time earlier than the
+    // newest record is moved up to it, so timestamps in the log still never go backwards
+    public long append(long timestampMillis, AuditEventType type, String actor, long subjectId, long amount) {
+        byte[] actorBytes = utf8(actor);
+        int length = FIXED_BYTES + actorBytes.length;
+        groupCommit.lock();
+        try {
+            groupCommit.checkOpen();
+            if (directory == null) {
+                return groupCommit.next();
+            }
+            long timestamp = Math.max(timestampMillis, lastTimestamp);
+            if (current == null || current.position + length > segmentBytes
+                    || timestamp - current.startMillis >= rollIntervalMillis) {
+                roll(timestamp);
+            }
+            lastTimestamp = Math.max(timestamp, lastTimestamp);
+            put(current.buffer, current.position, lastTimestamp, type, actorBytes, subjectId, amount);
+            current.position += length;
+            return groupCommit.next();
+        } finally {
+            groupCommit.unlock();
+        }
+    }
+
+    public void awaitDurable(long sequence) {
+        groupCommit.awaitDurable(sequence);
+    }
+
+    // Waits for everything appended so far to be forced, then stops the writer and cuts the last segment back
+    @Override
+    public void close() {
+        if (directory == null || !groupCommit.close()) {
+            return;
+        }
+        try {
+            if (current != null) {
+                current.channel.truncate(current.position);
+                current.channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not close audit segment {}", current.path, e);
+        }
+    }
+
+    // Records with from <= timestamp < to, oldest first, read lazily one segment at a time.
+    // Safe while the log is being written; records appended during the read may or may not be included.
+    public Stream<AuditRecord> read(Instant from, Instant to) {
+        return read(directory, from, to, this::writtenBytes);
+    }
+
+    // As above, for a directory that no AuditLog in this process is writing to
+    public static Stream<AuditRecord> read(Path directory, Instant from, Instant to) {
+        return read(directory, from, to, segment -> Long.MAX_VALUE);
+    }
+
+    private static Stream<AuditRecord> read(Path directory, Instant from, Instant to, ToLongFunction<Path> limit) {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return Stream.empty();
+        }
+        List<Path> segments = segments(directory);
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        // A segment holds records from its start up to the next segment's start
+        int first = 0;
+        while (first + 1 < segments.size() && startMillis(segments.get(first + 1)) <= fromMillis) {
+            first++;
+        }
+        int start = first;
+        Iterator<AuditRecord> records = new Iterator<>() {
+            private int segment = start;
+            private ByteBuffer buffer;
+            private int position;
+            private AuditRecord next;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && !done) {
+                    if (buffer == null) {
+                        if (segment >= segments.size() || startMillis(segments.get(segment)) >= toMillis) {
+                            done = true;
+                            break;
+                        }
+                        Path path = segments.get(segment);
+                        buffer = mapForReading(path, limit.applyAsLong(path));
+                        position = 0;
+                    }
+                    int length = recordLength(buffer, position);
+                    if (length == 0) {
+                        buffer = null;
+                        segment++;
+                        continue;
+                    }
+                    AuditRecord record = decode(buffer, position);
+                    position += length;
+                    long timestamp = record.timestamp().toEpochMilli();
+                    if (timestamp >= toMillis) {
+                        done = true;
+                    } else if (timestamp >= fromMillis) {
+                        next = record;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public AuditRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                AuditRecord record = next;
+                next = null;
+                return record;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(records,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // Bytes of a segment that are safe to map: what has been written to one not cut back yet, else the whole file
+    private long writtenBytes(Path segment) {
+        groupCommit.lock();
+        try {
+            Segment s = untrimmed.get(segment);
+            return s != null ? s.position : Long.MAX_VALUE;
+        } finally {
+            groupCommit.unlock();
+        }
+    }
+
+    // Caller holds the lock
+    private void roll(long timestamp) {
+        // Unique and increasing names even when segments fill up within one millisecond
+        long start = Math.max(timestamp, lastSegmentStart + 1);
+        Path path = directory.resolve(String.format("%019d%s", start, SUFFIX));
+        Segment segment;
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = new Segment(path, start, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create audit segment " + path, e);
+        }
+        if (current != null) {
+            // The writer forces what is left of it, then cuts it back and closes it
+            sealed.add(current);
+        }
+        current = segment;
+        untrimmed.put(path, segment);
+        lastSegmentStart = start;
+        lastTimestamp = Math.max(lastTimestamp, start);
+    }
+
+    // A crash leaves the last segment at its full mapped size; cut it back to its last intact record
+    private void recoverLast(Path path) throws IOException {
+        lastSegmentStart = startMillis(path);
+        lastTimestamp = lastSegmentStart;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int position = 0;
+            int length;
+            while ((length = recordLength(buffer, position)) > 0) {
+                lastTimestamp = Math.max(lastTimestamp, buffer.getLong(position + 2 * Integer.BYTES));
+                position += length;
+            }
+            if (position < channel.size()) {
+                channel.truncate(position);
+                channel.force(true);
+            }
+        }
+    }
+
+    // Under the lock: sealed segments are forced, cut back and closed, then the current one is forced up to here
+    private GroupCommit.Batch takeBatch() {
+        if (groupCommit.durable() == groupCommit.appended() && sealed.isEmpty()) {
+            return null;
+        }
+        List<Segment> toSeal = new ArrayList<>(sealed);
+        sealed.clear();
+        Segment segment = current;
+        int position = segment != null ? segment.position : 0;
+        return () -> {
+            for (Segment s : toSeal) {
+                s.force(s.position);
+                s.channel.truncate(s.position);
+                s.channel.close();
+                trimmed(s);
+            }
+            if (segment != null) {
+                segment.force(position);
+            }
+        };
+    }
+
+    private void trimmed(Segment segment) {
+        groupCommit.lock();
+        try {
+            untrimmed.remove(segment.path);
+        } finally {
+            groupCommit.unlock();
+        }
+    }
+
+    private static List<Path> segments(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            // Zero-padded start times, so name order is time order
+            return files.filter(path -> path.getFileName().toString().matches("\\d{19}\\" + SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list audit segments in " + directory, e);
+        }
+    }
+
+    private static long startMillis(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private static ByteBuffer mapForReading(Path segment, long limit) {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), limit));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read audit segment " + segment, e);
+        }
+    }
+
+    private static void put(ByteBuffer buffer, int position, long timestamp, AuditEventType type, byte[] actor,
+                            long subjectId, long amount) {
+        int body = position + 2 * Integer.BYTES;
+        buffer.putLong(body, timestamp)
+                .put(body + 8, (byte) type.ordinal())
+                .putLong(body + 9, subjectId)
+                .putLong(body + 17, amount)
+                .put(body + 25, (byte) actor.length)
+                .put(body + 26, actor);
+        int length = FIXED_BYTES + actor.length;
+        buffer.putInt(position + Integer.BYTES, crc(buffer, body, position + length));
+        // Length last: a reader that sees it finds the record complete, or fails the CRC and stops there
+        buffer.putInt(position, length);
+    }
+
+    private static AuditRecord decode(ByteBuffer buffer, int position) {
+        int body = position + 2 * Integer.BYTES;
+        byte[] actor = new byte[buffer.get(body + 25) & 0xFF];
+        buffer.get(body + 26, actor);
+        return new AuditRecord(Instant.ofEpochMilli(buffer.getLong(body)), TYPES[buffer.get(body + 8)],
+                new String(actor, StandardCharsets.UTF_8), buffer.getLong(body + 9), buffer.getLong(body + 17));
+    }
+
+    // Length of the intact record at position, or 0 where the records end (zero fill, a torn or corrupt record)
+    private static int recordLength(ByteBuffer buffer, int position) {
+        if (buffer.limit() - position < FIXED_BYTES) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        if (length < FIXED_BYTES || length > buffer.limit() - position
+                || length != FIXED_BYTES + (buffer.get(position + FIXED_BYTES - 1) & 0xFF)) {
+            return 0;
+        }
+        int body = position + 2 * Integer.BYTES;
+        if (crc(buffer, body, position + length) != buffer.getInt(position + Integer.BYTES)
+                || (buffer.get(body + 8) & 0xFF) >= TYPES.length) {
+            return 0;
+        }
+        return length;
+    }
+
+    private static int crc(ByteBuffer buffer, int from, int to) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(to).position(from));
+        return (int) crc.getValue();
+    }
+
+    // Cut to MAX_ACTOR_BYTES on a character boundary
+    private static byte[] utf8(String actor) {
+        String value = actor != null ? actor : "";
+        if (value.length() > MAX_ACTOR_BYTES) {
+            value = value.substring(0, MAX_ACTOR_BYTES);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        while (bytes.length > MAX_ACTOR_BYTES) {
+            value = value.substring(0, value.length() - 1);
+            bytes = value.getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,211 @@
+package com.security.drugInventory.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Audit events from request threads, delivered off the request path. publish() puts the event in a bounded
+// RingBuffer (one CAS, no lock, no I/O) and returns; a single consumer thread drains it in batches to the sink,
+// the local AuditLog or batched JDBC inserts. When the buffer is full the overflow policy decides: DROP the new
+// event, BLOCK the caller for at most the block timeout, or SAMPLE, which from half full on keeps one event in
+// sample-rate and drops the rest, so a burst thins out before the buffer fills. Every dropped event is counted.
+// On shutdown publishing stops and the consumer drains what is queued before the sink is closed.
+@Slf4j
+@Component
+public class AuditPipeline {
+
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK,
+        SAMPLE
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int SINK_ATTEMPTS = 3;
+
+    private final AuditSink sink;
+    private final RingBuffer<AuditRecord> ring;
+    private final int batchSize;
+    private final OverflowPolicy overflow;
+    private final int sampleRate;
+    private final long blockTimeoutNanos;
+    private final Duration drainTimeout;
+    private final AtomicLong sampled = new AtomicLong();
+    private final Timer lag;
+    private final Counter written;
+    private final Counter droppedFull;
+    private final Counter droppedSampled;
+    private final Counter droppedClosed;
+    private final Counter droppedSinkFailed;
+    private final Thread consumer;
+    private volatile boolean consumerIdle;
+    private volatile boolean closed;
+
+    @Autowired
+    public AuditPipeline(AuditTrail auditTrail,
+                         JdbcTemplate jdbcTemplate,
+                         @Value("${audit.pipeline.sink:file}") String sink,
+                         @Value("${audit.pipeline.capacity:8192}") int capacity,
+                         @Value("${audit.pipeline.batch-size:256}") int batchSize,
+                         @Value("${audit.pipeline.overflow:drop}") String overflow,
+                         @Value("${audit.pipeline.sample-rate:10}") int sampleRate,
+                         @Value("${audit.pipeline.block-timeout:50ms}") Duration blockTimeout,
+                         @Value("${audit.pipeline.drain-timeout:10s}") Duration drainTimeout,
+                         MeterRegistry meterRegistry) {
+        this(switch (sink.toLowerCase(Locale.ROOT)) {
+                    case "file" -> auditTrail;
+                    case "jdbc" -> new JdbcAuditSink(jdbcTemplate);
+                    default -> throw new IllegalArgumentException("Unknown audit sink: " + sink);
+                }, capacity, batchSize, OverflowPolicy.valueOf(overflow.toUpperCase(Locale.ROOT)), sampleRate,
+                blockTimeout, drainTimeout, meterRegistry);
+    }
+
+    // capacity is rounded up to a power of two
+    public AuditPipeline(AuditSink sink, int capacity, int batchSize, OverflowPolicy overflow, int sampleRate,
+                         Duration blockTimeout, Duration drainTimeout, MeterRegistry meterRegistry) {
+        if (capacity <= 0 || batchSize <= 0 || sampleRate <= 0) {
+            throw new IllegalArgumentException("Audit pipeline capacity, batch size and sample rate must be positive");
+        }
+        this.sink = sink;
+        this.ring = new RingBuffer<>(Math.max(2, Integer.highestOneBit(capacity - 1) << 1));
+        this.batchSize = batchSize;
+        this.overflow = overflow;
+        this.sampleRate = sampleRate;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.drainTimeout = drainTimeout;
+        Gauge.builder("audit.pipeline.queued", ring, RingBuffer::size)
+                .description("Audit events waiting for the consumer")
+                .register(meterRegistry);
+        this.lag = Timer.builder("audit.pipeline.lag")
+                .description("Age of the oldest event in each batch when it reaches the sink")
+                .register(meterRegistry);
+        this.written = Counter.builder("audit.pipeline.written")
+                .description("Audit events delivered to the sink")
+                .register(meterRegistry);
+        this.droppedFull = dropped(meterRegistry, "full");
+        this.droppedSampled = dropped(meterRegistry, "sampled");
+        this.droppedClosed = dropped(meterRegistry, "closed");
+        this.droppedSinkFailed = dropped(meterRegistry, "sink_failed");
+        this.consumer = Thread.ofPlatform().daemon().name("audit-pipeline").start(this::consume);
+    }
+
+    // Never does I/O on the caller's thread; false when the event was dropped
+    public boolean publish(AuditEventType type, String actor, long subjectId, long amount) {
+        if (closed) {
+            droppedClosed.increment();
+            return false;
+        }
+        if (overflow == OverflowPolicy.SAMPLE && ring.size() >= ring.capacity() / 2
+                && sampled.getAndIncrement() % sampleRate != 0) {
+            droppedSampled.increment();
+            return false;
+        }
+        AuditRecord record = new AuditRecord(Instant.now(), type, actor, subjectId, amount);
+        if (!ring.offer(record) && !(overflow == OverflowPolicy.BLOCK && offerWithin(record))) {
+            droppedFull.increment();
+            return false;
+        }
+        // Pairs with the consumer setting consumerIdle before its last look at the ring
+        if (consumerIdle) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    public int queued() {
+        return ring.size();
+    }
+
+    // Stops accepting events and waits up to the drain timeout for the queued ones to reach the sink
+    @PreDestroy
+    public void close() {
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(drainTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (consumer.isAlive()) {
+            log.warn("Audit pipeline did not drain within {}; {} event(s) not written", drainTimeout, ring.size());
+        }
+    }
+
+    private boolean offerWithin(AuditRecord record) {
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (System.nanoTime() < deadline && !closed) {
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (ring.offer(record)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void consume() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (true) {
+            if (ring.drainTo(batch, batchSize) > 0) {
+                deliver(batch);
+                batch.clear();
+                continue;
+            }
+            if (closed) {
+                // Producers that passed the closed check just before it flipped may still be publishing
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                if (ring.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            consumerIdle = true;
+            if (ring.isEmpty() && !closed) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            consumerIdle = false;
+        }
+    }
+
+    private void deliver(List<AuditRecord> batch) {
+        lag.record(Duration.between(batch.get(0).timestamp(), Instant.now()));
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sink.write(batch);
+                written.increment(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == SINK_ATTEMPTS) {
+                    droppedSinkFailed.increment(batch.size());
+                    log.error("Audit sink failed {} times; dropped {} event(s)", attempt, batch.size(), e);
+                    return;
+                }
+                log.warn("Audit sink failed, retrying {} event(s)", batch.size(), e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100L * attempt));
+            }
+        }
+    }
+
+    private static Counter dropped(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("audit.pipeline.dropped")
+                .description("Audit events dropped instead of written, by reason")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
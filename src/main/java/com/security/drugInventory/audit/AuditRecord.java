@@ -0,0 +1,8 @@
+package com.security.drugInventory.audit;
+
+import java.time.Instant;
+
+// actor is who acted (an email, or "system" for scheduled work); subjectId is the user or stock batch acted on,
+// and amount the quantity moved, both 0 where they do not apply
+public record AuditRecord(Instant timestamp, AuditEventType type, String actor, long subjectId, long amount) {
+}
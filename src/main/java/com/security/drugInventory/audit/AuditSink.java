@@ -0,0 +1,9 @@
+package com.security.drugInventory.audit;
+
+import java.util.List;
+
+// Where AuditPipeline delivers its batches; called from the pipeline's consumer thread only.
+// Returns once the batch is stored, and throws if it could not be.
+public interface AuditSink {
+    void write(List<AuditRecord> records);
+}
@@ -0,0 +1,77 @@
+package com.security.drugInventory.audit;
+
+import com.security.drugInventory.user.User;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+// What regulated drug handling has to be able to show afterwards: logins, registrations and stock movements,
+// written to the local AuditLog rather than the database. Stock movements and bulk registrations are written here
+// directly and return once their record is on disk; concurrent callers share the fsync. Per-request events (logins,
+// sign-ups, rejected tokens) go through AuditPipeline instead, which uses this as its file sink.
+// Stock movements are attributed to the authenticated user, or "system" for scheduled work.
+@Component
+public class AuditTrail implements AuditSink {
+
+    static final String SYSTEM = "system";
+
+    private final AuditLog auditLog;
+
+    public AuditTrail(@Value("${audit.log.directory:}") String directory,
+                      @Value("${audit.log.segment-size:64MB}") DataSize segmentSize,
+                      @Value("${audit.log.roll-interval:1h}") Duration rollInterval) {
+        this.auditLog = directory.isBlank()
+                ? AuditLog.disabled()
+                : new AuditLog(Path.of(directory), Math.toIntExact(segmentSize.toBytes()), rollInterval);
+    }
+
+    // Users created together by an admin; one wait for the whole batch
+    public void registered(List<User> users) {
+        String actor = currentActor();
+        long last = 0;
+        for (User user : users) {
+            last = auditLog.append(AuditEventType.REGISTERED, actor, user.getId(), 0);
+        }
+        auditLog.awaitDurable(last);
+    }
+
+    // amount is the quantity moved: negative for stock going out, positive for stock coming in
+    public void stockMoved(AuditEventType type, long batchId, long amount) {
+        auditLog.awaitDurable(auditLog.append(type, currentActor(), batchId, amount));
+    }
+
+    // Records keep the time they were published at
+    @Override
+    public void write(List<AuditRecord> records) {
+        long last = 0;
+        for (AuditRecord record : records) {
+            last = auditLog.append(record.timestamp().toEpochMilli(), record.type(), record.actor(),
+                    record.subjectId(), record.amount());
+        }
+        auditLog.awaitDurable(last);
+    }
+
+    // Empty when the audit log is disabled
+    public Stream<AuditRecord> read(Instant from, Instant to) {
+        return auditLog.read(from, to);
+    }
+
+    @PreDestroy
+    public void close() {
+        auditLog.close();
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : SYSTEM;
+    }
+}
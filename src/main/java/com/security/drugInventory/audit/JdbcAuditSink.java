@@ -0,0 +1,30 @@
+package com.security.drugInventory.audit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+// One JDBC batch insert into audit_event per pipeline batch
+public class JdbcAuditSink implements AuditSink {
+
+    private static final String INSERT = "INSERT INTO audit_event (occurred_at, type, actor, subject_id, amount) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcAuditSink(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void write(List<AuditRecord> records) {
+        jdbcTemplate.batchUpdate(INSERT, records, records.size(), (ps, record) -> {
+            ps.setTimestamp(1, Timestamp.from(record.timestamp()));
+            ps.setString(2, record.type().name());
+            ps.setString(3, record.actor());
+            ps.setLong(4, record.subjectId());
+            ps.setLong(5, record.amount());
+        });
+    }
+}
@@ -1,15 +1,31 @@
 package com.security.drugInventory.auth;
 
+import com.security.drugInventory.audit.AuditEventType;
+import com.security.drugInventory.audit.AuditPipeline;
+import com.security.drugInventory.config.AuthenticationMetrics;
+import com.security.drugInventory.config.CachedUser;
 import com.security.drugInventory.config.JWTService;
+import com.security.drugInventory.config.RevokedTokenStore;
+import com.security.drugInventory.config.TokenNotBeforeRegistry;
+import com.security.drugInventory.config.UserDetailsCache;
+import com.security.drugInventory.token.RefreshTokenService;
 import com.security.drugInventory.user.Role;
 import com.security.drugInventory.user.User;
 import com.security.drugInventory.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
@@ -18,46 +34,115 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JWTService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final UserDetailsCache userDetailsCache;
+    private final AuthenticationMetrics authenticationMetrics;
+    private final RefreshTokenService refreshTokenService;
+    private final RevokedTokenStore revokedTokenStore;
+    private final TokenNotBeforeRegistry tokenNotBeforeRegistry;
+    private final AuditPipeline auditPipeline;
 
-    public AuthenticationResponse register(RegisterRequest request) {
-        // Check if the user already exists
-        if (userRepository.findByEmail(request.getEmail()).isPresent()) {
-            throw new RuntimeException("User already exists with email: " + request.getEmail());
-        }
+    // Declared on User; databases report it in their own case and H2 appends an index suffix
+    private static final String EMAIL_CONSTRAINT = "uk_user_email";
 
+    public AuthenticationResponse register(RegisterRequest request) {
         // Determine the role or default to USER
         Role role = request.getRole() != null ? Role.valueOf(request.getRole()) : Role.USER;
 
-        // Create and save the user
+        var encodedPassword = authenticationMetrics.registerHash()
+                .record(() -> passwordEncoder.encode(request.getPassword()));
+
+        // Create and save the user; the unique constraint on email rejects duplicates in the same insert
         var user = User.builder()
                 .firstname(request.getFirstname())
                 .lastname(request.getLastname())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(encodedPassword)
                 .role(role)
                 .build();
-        userRepository.save(user);
+        try {
+            authenticationMetrics.registerDb().record(() -> userRepository.saveAndFlush(user));
+        } catch (DataIntegrityViolationException e) {
+            if (!violates(e, EMAIL_CONSTRAINT)) {
+                throw e;
+            }
+            throw new RuntimeException("User already exists with email: " + request.getEmail());
+        }
+        userDetailsCache.evict(user.getEmail());
+        auditPipeline.publish(AuditEventType.REGISTERED, user.getEmail(), idOf(user), 0);
 
         // Generate JWT token
-        var token = jwtService.generateToken(user);
-        return AuthenticationResponse.builder().token(token).build();
+        var token = authenticationMetrics.registerToken().record(() -> jwtService.generateToken(user));
+        return AuthenticationResponse.builder()
+                .token(token)
+                .refreshToken(refreshTokenService.issue(user))
+                .build();
     }
 
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
+        Authentication authentication;
         try {
             // Authenticate the user
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getEmail(), request.getPassword()));
+            authentication = authenticationMetrics.authenticateCredentials()
+                    .record(() -> authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(
+                                    request.getEmail(), request.getPassword())));
         } catch (AuthenticationException e) {
+            auditPipeline.publish(AuditEventType.LOGIN_FAILED, request.getEmail(), 0, 0);
             throw new RuntimeException("Invalid credentials", e);
         }
 
-        // Fetch the user and generate a JWT token
-        var user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // The provider already loaded the user, so generate the token from the authenticated principal
+        var user = (CachedUser) authentication.getPrincipal();
+        auditPipeline.publish(AuditEventType.LOGIN_SUCCEEDED, user.getUsername(), user.getId(), 0);
+
+        var jwtToken = authenticationMetrics.authenticateToken().record(() -> jwtService.generateToken(user));
+        return AuthenticationResponse.builder()
+                .token(jwtToken)
+                .refreshToken(refreshTokenService.issue(user.getId()))
+                .build();
+    }
+
+    // Renew the access token with a refresh token: one indexed lookup and update, no password hashing
+    public AuthenticationResponse refresh(RefreshRequest request) {
+        var rotation = refreshTokenService.rotate(request.getRefreshToken());
+        var jwtToken = jwtService.generateToken(rotation.user());
+        return AuthenticationResponse.builder()
+                .token(jwtToken)
+                .refreshToken(rotation.refreshToken())
+                .build();
+    }
+
+    // Revoke the access token until it expires and end the refresh token family, if one was sent
+    public void logout(String accessToken, String refreshToken) {
+        var claims = jwtService.validateToken(accessToken);
+        if (claims.getJti() != null) {
+            revokedTokenStore.revoke(claims.getJti(), claims.getExpiresAt());
+        }
+        refreshTokenService.revoke(refreshToken);
+    }
+
+    // Invalidate every access and refresh token the user holds, e.g. after a compromised account is reported.
+    // Access tokens are rejected by their issue time, so none of them has to be known here.
+    public void revokeAllTokens(String email) {
+        var user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown user " + email));
+        tokenNotBeforeRegistry.revokeTokensIssuedBefore(user.getEmail(), Instant.now());
+        refreshTokenService.revokeAll(user);
+        userDetailsCache.evict(user.getEmail());
+    }
+
+    // The id is only missing for users that were never saved
+    private static long idOf(User user) {
+        return user.getId() != null ? user.getId() : 0;
+    }
 
-        var jwtToken = jwtService.generateToken(user);
-        return AuthenticationResponse.builder().token(jwtToken).build();
+    // Only the named unique constraint means a duplicate email; a NOT NULL or length violation is a different fault
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraint);
+            }
+        }
+        return false;
     }
 }
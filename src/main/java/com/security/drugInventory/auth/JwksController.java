@@ -0,0 +1,31 @@
+package com.security.drugInventory.auth;
+
+import com.security.drugInventory.config.SigningKeyring;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final SigningKeyring signingKeyring;
+
+    @Value("${jwt.signing.jwks-max-age:5m}")
+    private Duration jwksMaxAge;
+
+    // Public keys for verifying ES256 tokens locally; the next key is included ahead of rotation
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(jwksMaxAge).cachePublic())
+                .body(Map.of("keys", signingKeyring.jwks()));
+    }
+}
@@ -0,0 +1,14 @@
+package com.security.drugInventory.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshRequest {
+    private String refreshToken;
+}
@@ -1,39 +1,90 @@
 package com.security.drugInventory.config;
 
+import com.security.drugInventory.user.User;
 import com.security.drugInventory.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
 
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${user.cache.maximum-size:10000}")
+    private long userCacheMaximumSize;
+
+    @Value("${user.cache.expire-after-write:5m}")
+    private Duration userCacheExpireAfterWrite;
+
+    // 0 means one hashing thread per available CPU
+    @Value("${password.hashing.pool-size:0}")
+    private int passwordHashingPoolSize;
+
+    @Value("${password.hashing.queue-capacity:64}")
+    private int passwordHashingQueueCapacity;
+
+    @Value("${password.hashing.target-time:100ms}")
+    private Duration passwordHashingTargetTime;
+
+    @Value("${password.hashing.min-strength:10}")
+    private int passwordHashingMinStrength;
+
+    @Value("${password.hashing.max-strength:14}")
+    private int passwordHashingMaxStrength;
 
     @Bean
-    public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByEmail(username)
+    public UserDetailsCache userDetailsService() {
+        Timer userLoad = Timer.builder("users.load")
+                .description("Database lookup of a user on a cache miss")
+                .register(meterRegistry);
+        UserDetailsService repositoryLookup = username -> userLoad.record(() -> userRepository.findByEmail(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return new UserDetailsCache(repositoryLookup, userCacheMaximumSize, userCacheExpireAfterWrite, meterRegistry);
     }
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
         return authProvider;
     }
+    // Stores hashes re-encoded by DaoAuthenticationProvider when the stored cost is below the calibrated one
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (userDetails, newPassword) -> {
+            User user = userRepository.findByEmail(userDetails.getUsername())
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            user.setPassword(newPassword);
+            userRepository.save(user);
+            userDetailsService().evict(user.getEmail());
+            return CachedUser.of(user);
+        };
+    }
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        int poolSize = passwordHashingPoolSize > 0
+                ? passwordHashingPoolSize
+                : Runtime.getRuntime().availableProcessors();
+        int strength = BCryptStrengthCalibrator.calibrate(
+                passwordHashingTargetTime, passwordHashingMinStrength, passwordHashingMaxStrength);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, passwordHashingQueueCapacity, meterRegistry);
     }
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
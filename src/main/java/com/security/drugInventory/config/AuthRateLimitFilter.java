@@ -0,0 +1,303 @@
+package com.security.drugInventory.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.drugInventory.user.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Throttles POSTs to /api/v1/auth/authenticate and /register before they reach AuthenticationService, where each
+// attempt costs a bcrypt hash and database queries. Refresh and logout carry a token rather than a password, so they
+// are left out and a burst of logins from one address cannot lock its users out of refreshing. Every request spends a token from its client IP's bucket, and
+// requests naming an email also spend one from that account's bucket, which stops credential stuffing
+// spread across many IPs. Rejected requests get a 429 with Retry-After.
+// Behind a reverse proxy the remote address is the proxy's, so requests from the configured trusted proxies are
+// keyed on the client address the proxy recorded in X-Forwarded-For instead.
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> THROTTLED_PATHS = Set.of("/api/v1/auth/authenticate", "/api/v1/auth/register");
+    // Far above any register or authenticate request; bigger bodies are refused rather than buffered
+    private static final int MAX_BODY_BYTES = 8 * 1024;
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final boolean enabled;
+    private final RateLimiter perIp;
+    private final RateLimiter perEmail;
+    private final List<IpAddressMatcher> trustedProxies;
+    private final ObjectMapper objectMapper;
+    private final byte[] tooManyRequestsBody;
+    private final byte[] payloadTooLargeBody;
+    private final Counter ipRejected;
+    private final Counter emailRejected;
+
+    @Autowired
+    public AuthRateLimitFilter(@Value("${rate-limit.auth.enabled:true}") boolean enabled,
+                               @Value("${rate-limit.auth.per-ip.capacity:20}") int perIpCapacity,
+                               @Value("${rate-limit.auth.per-ip.period:1m}") Duration perIpPeriod,
+                               @Value("${rate-limit.auth.per-email.capacity:5}") int perEmailCapacity,
+                               @Value("${rate-limit.auth.per-email.period:1m}") Duration perEmailPeriod,
+                               @Value("${rate-limit.auth.idle-expiry:10m}") Duration idleExpiry,
+                               @Value("${rate-limit.auth.maximum-keys:100000}") long maximumKeys,
+                               @Value("${rate-limit.auth.trusted-proxies:}") String trustedProxies,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this(enabled,
+                new RateLimiter(perIpCapacity, perIpPeriod, idleExpiry, maximumKeys),
+                new RateLimiter(perEmailCapacity, perEmailPeriod, idleExpiry, maximumKeys),
+                List.of(StringUtils.tokenizeToStringArray(trustedProxies, ",")),
+                objectMapper, meterRegistry);
+    }
+
+    public AuthRateLimitFilter(boolean enabled,
+                               RateLimiter perIp,
+                               RateLimiter perEmail,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this(enabled, perIp, perEmail, List.of(), objectMapper, meterRegistry);
+    }
+
+    // trustedProxies are IP addresses or CIDR ranges, e.g. 10.0.0.0/8
+    public AuthRateLimitFilter(boolean enabled,
+                               RateLimiter perIp,
+                               RateLimiter perEmail,
+                               List<String> trustedProxies,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.perIp = perIp;
+        this.perEmail = perEmail;
+        this.trustedProxies = trustedProxies.stream().map(IpAddressMatcher::new).toList();
+        this.objectMapper = objectMapper;
+        this.tooManyRequestsBody = errorBody(objectMapper, "Too Many Requests",
+                "Too many authentication attempts, please retry later");
+        this.payloadTooLargeBody = errorBody(objectMapper, "Payload Too Large",
+                "Request body must not exceed " + MAX_BODY_BYTES + " bytes");
+        this.ipRejected = rejectedCounter(meterRegistry, "ip");
+        this.emailRejected = rejectedCounter(meterRegistry, "email");
+        Gauge.builder("auth.ratelimit.buckets", perIp, RateLimiter::size)
+                .tag("key", "ip")
+                .description("Active rate limit buckets")
+                .register(meterRegistry);
+        Gauge.builder("auth.ratelimit.buckets", perEmail, RateLimiter::size)
+                .tag("key", "email")
+                .description("Active rate limit buckets")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !"POST".equals(request.getMethod())
+                || !THROTTLED_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long waitNanos = perIp.tryAcquire(clientAddress(request));
+        if (waitNanos > 0) {
+            ipRejected.increment();
+            reject(response, waitNanos);
+            return;
+        }
+
+        // The body is read here to find the email, then replayed to the controller
+        CachedBodyRequest cached = CachedBodyRequest.of(request);
+        if (cached == null) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, payloadTooLargeBody);
+            return;
+        }
+        String email = extractEmail(cached.body);
+        if (email != null) {
+            waitNanos = perEmail.tryAcquire(email);
+            if (waitNanos > 0) {
+                emailRejected.increment();
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(cached, response);
+    }
+
+    // The proxy appends the address it saw, so the rightmost hop that is not a trusted proxy is the client;
+    // anything further left was sent by the client and could be forged
+    private String clientAddress(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        String forwardedFor = request.getHeader(FORWARDED_FOR);
+        if (forwardedFor == null || !isTrustedProxy(remoteAddr)) {
+            return remoteAddr;
+        }
+        String[] hops = StringUtils.tokenizeToStringArray(forwardedFor, ",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            if (!isTrustedProxy(hops[i])) {
+                return hops[i];
+            }
+        }
+        return hops.length > 0 ? hops[0] : remoteAddr;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        for (IpAddressMatcher proxy : trustedProxies) {
+            try {
+                if (proxy.matches(address)) {
+                    return true;
+                }
+            } catch (IllegalArgumentException e) {
+                // Not an IP address, so not one of ours
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private String extractEmail(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isTextual() ? User.normalizeEmail(email.asText()) : null;
+        } catch (IOException e) {
+            // Unparseable bodies are rejected by the controller; the IP bucket still applies
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        writeError(response, HttpStatus.TOO_MANY_REQUESTS, tooManyRequestsBody);
+    }
+
+    private static void writeError(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("auth.ratelimit.rejected")
+                .description("Requests to /api/v1/auth rejected by the rate limiter")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    private static byte[] errorBody(ObjectMapper objectMapper, String error, String message) {
+        try {
+            return objectMapper.writeValueAsBytes(ErrorResponse.builder()
+                    .error(error)
+                    .message(message)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize error response", e);
+        }
+    }
+
+    // Request whose body has already been read into memory and is served again to downstream readers
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        // Null when the body is larger than MAX_BODY_BYTES
+        static CachedBodyRequest of(HttpServletRequest request) throws IOException {
+            if (request.getContentLengthLong() > MAX_BODY_BYTES) {
+                return null;
+            }
+            byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+            return body.length > MAX_BODY_BYTES ? null : new CachedBodyRequest(request, body);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so it is available at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.security.drugInventory.config;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Timers and counters for the authentication hot path, published with percentile histograms
+// so auth latency SLOs can be set on the Prometheus side.
+@Component
+public class AuthenticationMetrics {
+
+    public enum TokenOutcome {
+        VALID,
+        EXPIRED,
+        INVALID_SIGNATURE,
+        MALFORMED,
+        REVOKED,
+        UNKNOWN_USER
+    }
+
+    private final Timer tokenParse;
+    private final Timer userLoad;
+    private final Map<TokenOutcome, Counter> tokenOutcomes = new EnumMap<>(TokenOutcome.class);
+    private final Timer registerHash;
+    private final Timer registerDb;
+    private final Timer registerToken;
+    private final Timer authenticateCredentials;
+    private final Timer authenticateToken;
+
+    public AuthenticationMetrics(MeterRegistry meterRegistry) {
+        this.tokenParse = timer(meterRegistry, "jwt.filter.parse", "Verification of the bearer token");
+        this.userLoad = timer(meterRegistry, "jwt.filter.user.load", "Principal lookup for a verified token");
+        for (TokenOutcome outcome : TokenOutcome.values()) {
+            tokenOutcomes.put(outcome, Counter.builder("jwt.filter.outcome")
+                    .description("Bearer tokens seen by JWTAuthenticationFilter, by outcome")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        this.registerHash = stage(meterRegistry, "register", "hash");
+        this.registerDb = stage(meterRegistry, "register", "db");
+        this.registerToken = stage(meterRegistry, "register", "token");
+        this.authenticateCredentials = stage(meterRegistry, "authenticate", "credentials");
+        this.authenticateToken = stage(meterRegistry, "authenticate", "token");
+    }
+
+    public static TokenOutcome classify(RuntimeException e) {
+        if (e instanceof InvalidTokenException invalid) {
+            return switch (invalid.getReason()) {
+                case EXPIRED -> TokenOutcome.EXPIRED;
+                case INVALID_SIGNATURE -> TokenOutcome.INVALID_SIGNATURE;
+                case MALFORMED -> TokenOutcome.MALFORMED;
+            };
+        }
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof ExpiredJwtException) {
+            return TokenOutcome.EXPIRED;
+        }
+        if (cause instanceof SignatureException) {
+            return TokenOutcome.INVALID_SIGNATURE;
+        }
+        return TokenOutcome.MALFORMED;
+    }
+
+    public void recordOutcome(TokenOutcome outcome) {
+        tokenOutcomes.get(outcome).increment();
+    }
+
+    public void recordTokenParse(long startNanos) {
+        tokenParse.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUserLoad(long startNanos) {
+        userLoad.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Timer registerHash() {
+        return registerHash;
+    }
+
+    public Timer registerDb() {
+        return registerDb;
+    }
+
+    public Timer registerToken() {
+        return registerToken;
+    }
+
+    public Timer authenticateCredentials() {
+        return authenticateCredentials;
+    }
+
+    public Timer authenticateToken() {
+        return authenticateToken;
+    }
+
+    private static Timer stage(MeterRegistry meterRegistry, String operation, String stage) {
+        return Timer.builder("auth.stage")
+                .description("Time spent per stage of the register and authenticate endpoints")
+                .tag("operation", operation)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,42 @@
+package com.security.drugInventory.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+// Picks the bcrypt cost factor for this host: the highest strength whose hash time stays within the target.
+// Each step of strength doubles the work, so one measurement at the minimum strength is enough to extrapolate.
+@Slf4j
+public final class BCryptStrengthCalibrator {
+
+    private static final int SAMPLES = 3;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    public static int calibrate(Duration target, int minStrength, int maxStrength) {
+        long baseline = measure(minStrength);
+        int strength = minStrength;
+        long estimated = baseline;
+        while (strength < maxStrength && estimated * 2 <= target.toNanos()) {
+            estimated *= 2;
+            strength++;
+        }
+        log.info("Calibrated bcrypt strength {} (~{} ms per hash, target {} ms)",
+                strength, estimated / 1_000_000, target.toMillis());
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long fastest = Long.MAX_VALUE;
+        // The first hash also warms up the JIT, so keep the fastest sample
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration-password");
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+}
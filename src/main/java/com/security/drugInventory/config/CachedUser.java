@@ -0,0 +1,31 @@
+package com.security.drugInventory.config;
+
+import com.security.drugInventory.user.User;
+import lombok.ToString;
+import lombok.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+
+// What UserDetailsCache hands out instead of the JPA entity: an immutable copy of the fields authentication needs,
+// so one instance can be shared by every request thread while the entity itself is changed and saved elsewhere.
+@Value
+public class CachedUser implements UserDetails {
+    // 0 for users that did not come from the database
+    long id;
+    String username;
+    @ToString.Exclude
+    String password;
+    List<GrantedAuthority> authorities;
+    boolean enabled;
+
+    public static CachedUser of(UserDetails userDetails) {
+        if (userDetails instanceof CachedUser cached) {
+            return cached;
+        }
+        long id = userDetails instanceof User user && user.getId() != null ? user.getId() : 0;
+        return new CachedUser(id, userDetails.getUsername(), userDetails.getPassword(),
+                List.copyOf(userDetails.getAuthorities()), userDetails.isEnabled());
+    }
+}
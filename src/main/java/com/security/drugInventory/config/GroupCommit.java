@@ -0,0 +1,192 @@
+package com.security.drugInventory.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Group commit for the append-only logs. Appenders copy their record in under the lock and take the next sequence
+// number; one writer thread repeatedly takes everything appended since its last pass and makes it durable with a
+// single fsync or msync, so concurrent callers of awaitDurable share it. The log decides what a batch is through
+// its Source; this class owns the lock, the sequence numbers, the writer thread and failure handling.
+// Without start() there is no writer and every sequence number is durable as soon as it is handed out.
+@Slf4j
+public final class GroupCommit {
+
+    // Runs on the writer thread without the lock
+    @FunctionalInterface
+    public interface Batch {
+        void write() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Source {
+        // Called with the lock held: detaches everything appended so far, or returns null when nothing is pending
+        Batch take();
+    }
+
+    private final String name;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hasData = lock.newCondition();
+    private final Condition durableAdvanced = lock.newCondition();
+    // Signalled as well when the log fails or closes, so whoever waits on them sees it
+    private final List<Condition> conditions = new ArrayList<>();
+    private Thread writer;
+    private long appended;
+    private long durable;
+    private IOException failure;
+    private boolean closed;
+
+    // name is used in errors, e.g. "Audit log /var/audit"
+    public GroupCommit(String name, long startSequence) {
+        this.name = name;
+        this.appended = startSequence;
+        this.durable = startSequence;
+    }
+
+    public void start(String threadName, Source source) {
+        writer = Thread.ofPlatform().daemon().name(threadName).start(() -> writeLoop(source));
+    }
+
+    public void lock() {
+        lock.lock();
+    }
+
+    public void unlock() {
+        lock.unlock();
+    }
+
+    public Condition newCondition() {
+        Condition condition = lock.newCondition();
+        conditions.add(condition);
+        return condition;
+    }
+
+    // Caller holds the lock and has just added a record; returns its sequence number
+    public long next() {
+        checkOpen();
+        appended++;
+        if (writer == null) {
+            durable = appended;
+        } else {
+            hasData.signal();
+        }
+        return appended;
+    }
+
+    public long appended() {
+        lock.lock();
+        try {
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long durable() {
+        lock.lock();
+        try {
+            return durable;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                checkFailure();
+                durableAdvanced.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void checkOpen() {
+        checkFailure();
+        if (closed) {
+            throw new IllegalStateException(name + " is closed");
+        }
+    }
+
+    // Waits for the writer to finish what was appended so far and stops it; false when already closed
+    public boolean close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            hasData.signal();
+            conditions.forEach(Condition::signalAll);
+        } finally {
+            lock.unlock();
+        }
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return true;
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException(name + " write failed", failure);
+        }
+    }
+
+    private void writeLoop(Source source) {
+        while (true) {
+            Batch batch;
+            long batchSequence;
+            lock.lock();
+            try {
+                while ((batch = source.take()) == null && !closed) {
+                    hasData.awaitUninterruptibly();
+                }
+                if (batch == null) {
+                    return;
+                }
+                batchSequence = appended;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                // One fsync/msync covers every record appended since the previous one
+                batch.write();
+            } catch (IOException e) {
+                error = e;
+            } catch (UncheckedIOException e) {
+                error = e.getCause();
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                    log.error("{} failed; its records can no longer be made durable", name, error);
+                    conditions.forEach(Condition::signalAll);
+                } else {
+                    durable = batchSequence;
+                }
+                durableAdvanced.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
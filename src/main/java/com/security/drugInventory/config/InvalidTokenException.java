@@ -0,0 +1,27 @@
+package com.security.drugInventory.config;
+
+// Thrown by JWTService for bearer tokens that fail verification.
+// Stackless: callers only need the reason, and bots spraying junk tokens would otherwise
+// pay for a stack trace on every request.
+public class InvalidTokenException extends RuntimeException {
+
+    public enum Reason {
+        MALFORMED,
+        EXPIRED,
+        INVALID_SIGNATURE
+    }
+
+    // Shared by every structural pre-check failure; immutable since it has no stack trace and no suppressed list
+    public static final InvalidTokenException MALFORMED_TOKEN = new InvalidTokenException(Reason.MALFORMED, null);
+
+    private final Reason reason;
+
+    public InvalidTokenException(Reason reason, Throwable cause) {
+        super("Invalid JWT token", cause, false, false);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -1,12 +1,17 @@
 package com.security.drugInventory.config;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.security.drugInventory.audit.AuditEventType;
+import com.security.drugInventory.audit.AuditPipeline;
 import com.fasterxml.jackson.databind.ObjectMapper;  // Make sure to import ObjectMapper
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -14,14 +19,42 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Instant;
 
 @Component
-@RequiredArgsConstructor
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
 
     private final JWTService jwtService;
     private final UserDetailsService userDetailsService;
-    private final ObjectMapper objectMapper; // Add ObjectMapper for serialization
+    private final TokenNotBeforeRegistry tokenNotBeforeRegistry;
+    private final RevokedTokenStore revokedTokenStore;
+    private final AuthenticationMetrics authenticationMetrics;
+    private final AuditPipeline auditPipeline;
+    // The 401 bodies never change, so they are serialized once instead of on every rejection
+    private final byte[] invalidTokenBody;
+    private final byte[] userNotFoundBody;
+
+    // When true, the principal is built from the verified subject and roles claims
+    // instead of loading the user from the database on every request
+    @Value("${jwt.claims-trusted:false}")
+    private boolean claimsTrusted;
+
+    public JWTAuthenticationFilter(JWTService jwtService,
+                                   UserDetailsService userDetailsService,
+                                   TokenNotBeforeRegistry tokenNotBeforeRegistry,
+                                   RevokedTokenStore revokedTokenStore,
+                                   AuthenticationMetrics authenticationMetrics,
+                                   AuditPipeline auditPipeline,
+                                   ObjectMapper objectMapper) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokenNotBeforeRegistry = tokenNotBeforeRegistry;
+        this.revokedTokenStore = revokedTokenStore;
+        this.authenticationMetrics = authenticationMetrics;
+        this.auditPipeline = auditPipeline;
+        this.invalidTokenBody = errorBody(objectMapper, "Invalid JWT token");
+        this.userNotFoundBody = errorBody(objectMapper, "User not found");
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -35,57 +68,105 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        // Junk is rejected before the token is copied out of the header or handed to jjwt
+        if (!TokenStructure.isWellFormed(authorizationHeader, 7, authorizationHeader.length())) {
+            reject(request, response, null, AuthenticationMetrics.TokenOutcome.MALFORMED, invalidTokenBody);
+            return;
+        }
+
         final String jwt = authorizationHeader.substring(7);
-        String userEmail = null;
+        VerifiedClaims claims = null;
+        long parseStart = System.nanoTime();
         try {
-            userEmail = jwtService.extractEmail(jwt);
+            claims = jwtService.validateWellFormedToken(jwt);
         } catch (RuntimeException e) {
-            ErrorResponse errorResponse = ErrorResponse.builder()
-                    .error("Unauthorized")
-                    .message("Invalid JWT token")
-                    .build();
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.setContentType("application/json");
-            response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+            reject(request, response, null, AuthenticationMetrics.classify(e), invalidTokenBody);
             return;
+        } finally {
+            authenticationMetrics.recordTokenParse(parseStart);
         }
 
+        final String userEmail = claims.getSubject();
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (revokedTokenStore.isRevoked(claims) || tokenNotBeforeRegistry.isRevoked(claims)) {
+                reject(request, response, userEmail, AuthenticationMetrics.TokenOutcome.REVOKED, invalidTokenBody);
+                return;
+            }
+
             UserDetails userDetails = null;
+            long userLoadStart = System.nanoTime();
             try {
-                userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                userDetails = claimsTrusted
+                        ? userFromClaims(claims)
+                        : this.userDetailsService.loadUserByUsername(userEmail);
             } catch (RuntimeException e) {
-                ErrorResponse errorResponse = ErrorResponse.builder()
-                        .error("Unauthorized")
-                        .message("User not found")
-                        .build();
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.setContentType("application/json");
-                response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+                reject(request, response, userEmail, AuthenticationMetrics.TokenOutcome.UNKNOWN_USER,
+                        userNotFoundBody);
                 return;
+            } finally {
+                authenticationMetrics.recordUserLoad(userLoadStart);
             }
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            } else {
-                ErrorResponse errorResponse = ErrorResponse.builder()
-                        .error("Unauthorized")
-                        .message("Invalid JWT token")
-                        .build();
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.setContentType("application/json");
-                response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+            if (!jwtService.isTokenValid(claims, userDetails)) {
+                reject(request, response, userEmail, claims.isExpired(Instant.now())
+                        ? AuthenticationMetrics.TokenOutcome.EXPIRED
+                        : AuthenticationMetrics.TokenOutcome.UNKNOWN_USER, invalidTokenBody);
                 return;
             }
+            authenticationMetrics.recordOutcome(AuthenticationMetrics.TokenOutcome.VALID);
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails,
+                    null,
+                    userDetails.getAuthorities());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
     }
+
+    // Single exit for every 401: record the outcome, hand the audit event to the pipeline without waiting for it,
+    // and write the prebuilt body with a fixed length, bypassing the Writer and its charset encoder.
+    // Without a verified subject the client address stands in for the actor.
+    private void reject(HttpServletRequest request,
+                        HttpServletResponse response,
+                        String subject,
+                        AuthenticationMetrics.TokenOutcome outcome,
+                        byte[] body) throws IOException {
+        authenticationMetrics.recordOutcome(outcome);
+        auditPipeline.publish(auditType(outcome), subject != null ? subject : request.getRemoteAddr(), 0, 0);
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static AuditEventType auditType(AuthenticationMetrics.TokenOutcome outcome) {
+        return switch (outcome) {
+            case EXPIRED -> AuditEventType.TOKEN_EXPIRED;
+            case REVOKED -> AuditEventType.TOKEN_REVOKED;
+            case UNKNOWN_USER -> AuditEventType.TOKEN_UNKNOWN_USER;
+            default -> AuditEventType.TOKEN_INVALID;
+        };
+    }
+
+    private static byte[] errorBody(ObjectMapper objectMapper, String message) {
+        try {
+            return objectMapper.writeValueAsBytes(ErrorResponse.builder()
+                    .error("Unauthorized")
+                    .message(message)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize error response", e);
+        }
+    }
+
+    private UserDetails userFromClaims(VerifiedClaims claims) {
+        return User.withUsername(claims.getSubject())
+                .password("")
+                .authorities(claims.getRoles().toArray(String[]::new))
+                .build();
+    }
 }
 //
 //package com.security.drugInventory.config;
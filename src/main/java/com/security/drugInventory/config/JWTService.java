@@ -80,19 +80,31 @@
 package com.security.drugInventory.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -100,8 +112,66 @@ import java.util.stream.Collectors;
 public class        JWTService {
 
     //private static final String SECRET_KEY = "b2e7c6e1f29f13e0d8a6b5c3e07a8b9c6a3f9c8b27f93eac5641d3c72a9a6b0c";
-    @Value("${jwt.secret.key}")
-    private String secretKey;
+    // Decoded once at startup; both the key and the built parser are immutable and thread-safe
+    private final Key signInKey;
+    private final JwtParser jwtParser;
+    private final VerifiedTokenCache verifiedTokenCache;
+    // HS256 signs with the shared secret; ES256 signs with the keyring's active key and sets a kid header
+    private final SignatureAlgorithm signingAlgorithm;
+    private final SigningKeyring signingKeyring;
+    // False once every client holds ES256 tokens: a token without a kid is then rejected instead of
+    // being checked against the shared secret
+    private final boolean acceptHs256;
+    // Access tokens are short-lived; clients renew them through the refresh endpoint instead of re-authenticating
+    private final Duration accessTokenTtl;
+
+    @Autowired
+    public JWTService(@Value("${jwt.secret.key}") String secretKey,
+                      @Value("${jwt.signing.algorithm:HS256}") SignatureAlgorithm signingAlgorithm,
+                      @Value("${jwt.signing.accept-hs256:true}") boolean acceptHs256,
+                      SigningKeyring signingKeyring,
+                      VerifiedTokenCache verifiedTokenCache,
+                      @Value("${jwt.access-token.ttl:15m}") Duration accessTokenTtl) {
+        if (signingAlgorithm != SignatureAlgorithm.HS256 && signingAlgorithm != SignatureAlgorithm.ES256) {
+            throw new IllegalArgumentException("Unsupported jwt.signing.algorithm: " + signingAlgorithm);
+        }
+        if (!acceptHs256 && signingAlgorithm == SignatureAlgorithm.HS256) {
+            throw new IllegalArgumentException("jwt.signing.accept-hs256=false requires jwt.signing.algorithm=ES256");
+        }
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.signingAlgorithm = signingAlgorithm;
+        this.acceptHs256 = acceptHs256;
+        this.signingKeyring = signingKeyring;
+        // Tokens with a kid are verified against the keyring, tokens without one against the shared secret
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveVerificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.accessTokenTtl = accessTokenTtl;
+    }
+
+    public JWTService(String secretKey,
+                      SignatureAlgorithm signingAlgorithm,
+                      SigningKeyring signingKeyring,
+                      VerifiedTokenCache verifiedTokenCache,
+                      Duration accessTokenTtl) {
+        this(secretKey, signingAlgorithm, true, signingKeyring, verifiedTokenCache, accessTokenTtl);
+    }
+
+    public JWTService(String secretKey, VerifiedTokenCache verifiedTokenCache) {
+        this(secretKey, SignatureAlgorithm.HS256, new SigningKeyring(Duration.ofHours(1)), verifiedTokenCache,
+                Duration.ofMinutes(15));
+    }
+
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
+    }
+
     // Extract email (username) from JWT token
     public String extractEmail(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -120,18 +190,52 @@ public class        JWTService {
 
     // Validate JWT token
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractEmail(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(validateToken(token), userDetails);
     }
 
-    // Check if the token has expired
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Check already verified claims against the user, without parsing the token again
+    public boolean isTokenValid(VerifiedClaims claims, UserDetails userDetails) {
+        return claims.getSubject() != null
+                && claims.getSubject().equals(userDetails.getUsername())
+                && !claims.isExpired(Instant.now());
     }
 
-    // Extract the expiration date from the JWT token
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // Parse and verify the token once; callers use the result for every later check.
+    // Structurally invalid tokens are rejected before hashing, cache lookup or jjwt parsing.
+    public VerifiedClaims validateToken(String token) {
+        if (!TokenStructure.isWellFormed(token)) {
+            throw InvalidTokenException.MALFORMED_TOKEN;
+        }
+        return validateWellFormedToken(token);
+    }
+
+    // For callers that already ran TokenStructure.isWellFormed on the token, like the authentication filter on the
+    // raw header, so the structural scan is not repeated. jjwt still rejects anything that is not a signed token.
+    public VerifiedClaims validateWellFormedToken(String token) {
+        return verifiedTokenCache.get(token, this::verifyToken);
+    }
+
+    private VerifiedClaims verifyToken(String token) {
+        final Claims claims = extractAllClaims(token);
+        return VerifiedClaims.builder()
+                .jti(claims.getId() != null ? UUID.fromString(claims.getId()) : null)
+                .subject(claims.getSubject())
+                .roles(extractRoles(claims))
+                .issuedAt(toInstant(claims.getIssuedAt()))
+                .expiresAt(toInstant(claims.getExpiration()))
+                .build();
+    }
+
+    private List<String> extractRoles(Claims claims) {
+        Object roles = claims.get("roles");
+        if (!(roles instanceof Collection<?> values)) {
+            return List.of();
+        }
+        return values.stream().map(String::valueOf).toList();
+    }
+
+    private Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
     }
 
     // Generate JWT token with extra claims
@@ -140,32 +244,48 @@ public class        JWTService {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList()));
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setClaims(extraClaims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24)) // 24 hours
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + accessTokenTtl.toMillis()));
+        if (signingAlgorithm == SignatureAlgorithm.ES256) {
+            SigningKeyring.SigningKey active = signingKeyring.active();
+            builder.setHeaderParam(JwsHeader.KEY_ID, active.kid())
+                    .signWith(active.keyPair().getPrivate(), SignatureAlgorithm.ES256);
+        } else {
+            builder.signWith(signInKey, SignatureAlgorithm.HS256);
+        }
+        return builder.compact();
+    }
+
+    private Key resolveVerificationKey(String kid) {
+        if (kid == null) {
+            if (!acceptHs256) {
+                throw new SignatureException("Tokens without a kid are not accepted");
+            }
+            return signInKey;
+        }
+        Key key = signingKeyring.publicKey(kid);
+        if (key == null) {
+            throw new SignatureException("Unknown signing key id: " + kid);
+        }
+        return key;
     }
 
     // Extract all claims from the JWT token
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSignInKey())
-                    .build()
+            return jwtParser
                     .parseClaimsJws(token)
                     .getBody();
+        } catch (ExpiredJwtException e) {
+            throw new InvalidTokenException(InvalidTokenException.Reason.EXPIRED, e);
+        } catch (SignatureException e) {
+            throw new InvalidTokenException(InvalidTokenException.Reason.INVALID_SIGNATURE, e);
         } catch (Exception e) {
-            // Handle exceptions, e.g., logging or rethrowing as runtime exception
-            throw new RuntimeException("Invalid JWT token", e);
+            throw new InvalidTokenException(InvalidTokenException.Reason.MALFORMED, e);
         }
     }
-
-    // Get the signing key for JWT
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
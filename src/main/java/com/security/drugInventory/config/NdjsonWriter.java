@@ -0,0 +1,44 @@
+package com.security.drugInventory.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Streams rows as NDJSON (one JSON object per line) while they are produced. The generator hands bytes to the
+// output stream as its buffer fills instead of building the whole body, and the per-value flush is turned off,
+// which would otherwise make every row its own network write.
+public final class NdjsonWriter<T> {
+
+    private final ObjectWriter rowWriter;
+
+    public NdjsonWriter(ObjectMapper objectMapper, Class<T> type) {
+        this.rowWriter = objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    // Returns the number of rows written. Everything is flushed to the stream, which the caller still owns and
+    // closes; an UncheckedIOException from producing the rows is rethrown as the IOException it wraps.
+    public long write(Stream<? extends T> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = rowWriter.createGenerator(out)) {
+            // Closing the generator flushes it, and would close out as well unless told not to
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // The default separator between root values is a space, which would start every line after the first
+            generator.setRootValueSeparator(null);
+            for (Iterator<? extends T> it = rows.iterator(); it.hasNext(); ) {
+                rowWriter.writeValue(generator, it.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,9 @@
+package com.security.drugInventory.config;
+
+// Thrown when the password hashing pool is saturated; mapped to 503 by GlobalExceptionHandler
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,58 @@
+package com.security.drugInventory.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token buckets keyed by an arbitrary string (client IP, email), allowing `capacity` requests per `period`
+// with bursts up to `capacity`. Each bucket is a single AtomicLong holding the time at which it will be
+// full again (the GCRA form of a token bucket), so acquiring is one CAS with no lock and no refill thread.
+// Buckets idle for longer than `idleExpiry` are evicted; an evicted bucket would have been full anyway.
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+
+    public RateLimiter(int capacity, Duration period, Duration idleExpiry, long maximumKeys) {
+        this(capacity, period, idleExpiry, maximumKeys, System::nanoTime);
+    }
+
+    public RateLimiter(int capacity, Duration period, Duration idleExpiry, long maximumKeys, LongSupplier nanoClock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.intervalNanos = period.toNanos() / capacity;
+        this.burstNanos = intervalNanos * capacity;
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleExpiry)
+                .maximumSize(maximumKeys)
+                .build();
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanoseconds until the next token is available
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + intervalNanos;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,291 @@
+package com.security.drugInventory.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Revoked token ids (jti) kept until the token would have expired anyway.
+// Entries live in parallel primitive arrays sorted by jti, 24 bytes per token, published copy-on-write through a
+// volatile reference: lookups are a lock-free binary search that never allocates. A revocation only inserts into a
+// small array of recent ones; a background writer folds those into the main arrays, drops expired entries and, with
+// a snapshot path set, writes the snapshot, so logout never pays for the O(n) rebuild or the fsync.
+// The snapshot is reloaded on startup; a revocation is only lost if the process dies before the writer runs.
+@Slf4j
+@Component
+public class RevokedTokenStore {
+
+    private static final int SNAPSHOT_MAGIC = 0x4A544931; // "JTI1"
+    private static final int ENTRY_BYTES = 3 * Long.BYTES;
+
+    private record Entries(long[] mostSigBits, long[] leastSigBits, long[] expiresAt) {
+
+        static final Entries EMPTY = new Entries(new long[0], new long[0], new long[0]);
+
+        int size() {
+            return mostSigBits.length;
+        }
+    }
+
+    // Published as one reference, so a lookup never sees the merged arrays without the recent ones or vice versa
+    private record State(Entries merged, Entries recent) {
+    }
+
+    private final Path snapshotPath;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("revoked-token-writer").factory());
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    // Serializes flushes, so an older snapshot never overwrites a newer one
+    private final Object flushLock = new Object();
+    private volatile State state = new State(Entries.EMPTY, Entries.EMPTY);
+
+    @Autowired
+    public RevokedTokenStore(@Value("${jwt.revocation.snapshot-path:}") String snapshotPath,
+                             MeterRegistry meterRegistry) {
+        this(snapshotPath.isBlank() ? null : Path.of(snapshotPath));
+        Gauge.builder("jwt.revoked.tokens", this, RevokedTokenStore::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    // In-memory only when snapshotPath is null
+    public RevokedTokenStore(Path snapshotPath) {
+        this.snapshotPath = snapshotPath;
+        if (snapshotPath != null && Files.exists(snapshotPath)) {
+            state = new State(load(snapshotPath, Instant.now().getEpochSecond()), Entries.EMPTY);
+            log.info("Loaded {} revoked token id(s) from {}", state.merged().size(), snapshotPath);
+        }
+    }
+
+    public static RevokedTokenStore inMemory() {
+        return new RevokedTokenStore(null);
+    }
+
+    public boolean isRevoked(VerifiedClaims claims) {
+        UUID jti = claims.getJti();
+        return jti != null && isRevoked(jti.getMostSignificantBits(), jti.getLeastSignificantBits());
+    }
+
+    public boolean isRevoked(long mostSigBits, long leastSigBits) {
+        State current = state;
+        return indexOf(current.merged(), mostSigBits, leastSigBits) >= 0
+                || indexOf(current.recent(), mostSigBits, leastSigBits) >= 0;
+    }
+
+    // Tokens that are already expired are rejected anyway, so they are not stored.
+    // In effect for lookups on return; the merge and the snapshot write happen on the writer thread.
+    public void revoke(UUID jti, Instant expiresAt) {
+        long expiry = expiresAt.getEpochSecond();
+        if (expiry <= Instant.now().getEpochSecond()) {
+            return;
+        }
+        synchronized (this) {
+            State current = state;
+            long mostSigBits = jti.getMostSignificantBits();
+            long leastSigBits = jti.getLeastSignificantBits();
+            int index = indexOf(current.recent(), mostSigBits, leastSigBits);
+            if (index >= 0 || indexOf(current.merged(), mostSigBits, leastSigBits) >= 0) {
+                return;
+            }
+            state = new State(current.merged(), insert(current.recent(), -(index + 1), mostSigBits, leastSigBits,
+                    expiry));
+        }
+        if (flushQueued.compareAndSet(false, true)) {
+            writer.execute(this::flush);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval:PT5M}")
+    public void prune() {
+        flush();
+    }
+
+    // Folds recent revocations into the merged arrays, drops expired entries and writes the snapshot when anything
+    // changed. A failed write is logged and retried by the next flush; the revocations stay in effect in memory.
+    public void flush() {
+        synchronized (flushLock) {
+            // Cleared before merging, so a revocation that lands during the merge queues another flush
+            flushQueued.set(false);
+            long now = Instant.now().getEpochSecond();
+            Entries merged;
+            synchronized (this) {
+                State current = state;
+                merged = merge(current.merged(), current.recent(), now);
+                if (merged == null) {
+                    return;
+                }
+                state = new State(merged, Entries.EMPTY);
+            }
+            if (snapshotPath != null) {
+                try {
+                    write(snapshotPath, merged);
+                } catch (IOException e) {
+                    log.error("Could not write revoked token snapshot {}", snapshotPath, e);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    public int size() {
+        State current = state;
+        return current.merged().size() + current.recent().size();
+    }
+
+    private static Entries insert(Entries current, int at, long mostSigBits, long leastSigBits, long expiresAt) {
+        int size = current.size();
+        long[] msb = new long[size + 1];
+        long[] lsb = new long[size + 1];
+        long[] exp = new long[size + 1];
+        System.arraycopy(current.mostSigBits(), 0, msb, 0, at);
+        System.arraycopy(current.leastSigBits(), 0, lsb, 0, at);
+        System.arraycopy(current.expiresAt(), 0, exp, 0, at);
+        msb[at] = mostSigBits;
+        lsb[at] = leastSigBits;
+        exp[at] = expiresAt;
+        System.arraycopy(current.mostSigBits(), at, msb, at + 1, size - at);
+        System.arraycopy(current.leastSigBits(), at, lsb, at + 1, size - at);
+        System.arraycopy(current.expiresAt(), at, exp, at + 1, size - at);
+        return new Entries(msb, lsb, exp);
+    }
+
+    // Merges two sorted, disjoint entry sets and drops the expired ones; null when that changes nothing
+    private static Entries merge(Entries left, Entries right, long now) {
+        int size = left.size() + right.size();
+        long[] msb = new long[size];
+        long[] lsb = new long[size];
+        long[] exp = new long[size];
+        int live = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.size() || j < right.size()) {
+            Entries from;
+            int at;
+            if (j == right.size() || (i < left.size() && compare(left, i, right, j) < 0)) {
+                from = left;
+                at = i++;
+            } else {
+                from = right;
+                at = j++;
+            }
+            if (from.expiresAt()[at] > now) {
+                msb[live] = from.mostSigBits()[at];
+                lsb[live] = from.leastSigBits()[at];
+                exp[live++] = from.expiresAt()[at];
+            }
+        }
+        if (right.size() == 0 && live == size) {
+            return null;
+        }
+        return trim(msb, lsb, exp, live);
+    }
+
+    private static int compare(Entries left, int i, Entries right, int j) {
+        int cmp = Long.compare(left.mostSigBits()[i], right.mostSigBits()[j]);
+        return cmp != 0 ? cmp : Long.compare(left.leastSigBits()[i], right.leastSigBits()[j]);
+    }
+
+    // Binary search ordered by (mostSigBits, leastSigBits); returns -(insertion point + 1) when absent
+    private static int indexOf(Entries current, long mostSigBits, long leastSigBits) {
+        long[] msb = current.mostSigBits();
+        long[] lsb = current.leastSigBits();
+        int low = 0;
+        int high = msb.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Long.compare(msb[mid], mostSigBits);
+            if (cmp == 0) {
+                cmp = Long.compare(lsb[mid], leastSigBits);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static Entries trim(long[] msb, long[] lsb, long[] exp, int length) {
+        if (length == msb.length) {
+            return new Entries(msb, lsb, exp);
+        }
+        return new Entries(Arrays.copyOf(msb, length), Arrays.copyOf(lsb, length),
+                Arrays.copyOf(exp, length));
+    }
+
+    // Snapshot layout: magic, entry count, then (msb, lsb, exp) per entry in jti order
+    private static void write(Path path, Entries snapshot) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + snapshot.size() * ENTRY_BYTES);
+        buffer.putInt(SNAPSHOT_MAGIC).putInt(snapshot.size());
+        for (int i = 0; i < snapshot.size(); i++) {
+            buffer.putLong(snapshot.mostSigBits()[i])
+                    .putLong(snapshot.leastSigBits()[i])
+                    .putLong(snapshot.expiresAt()[i]);
+        }
+        buffer.flip();
+        // Write next to the target and rename, so a crash never leaves a half-written snapshot
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Entries load(Path path, long now) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("Not a revoked token snapshot: " + path);
+            }
+            int size = buffer.getInt();
+            long[] msb = new long[size];
+            long[] lsb = new long[size];
+            long[] exp = new long[size];
+            int live = 0;
+            // Entries were written in order, so skipping expired ones keeps the arrays sorted
+            for (int i = 0; i < size; i++) {
+                long mostSigBits = buffer.getLong();
+                long leastSigBits = buffer.getLong();
+                long expiresAt = buffer.getLong();
+                if (expiresAt > now) {
+                    msb[live] = mostSigBits;
+                    lsb[live] = leastSigBits;
+                    exp[live++] = expiresAt;
+                }
+            }
+            return trim(msb, lsb, exp, live);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read revoked token snapshot " + path, e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.security.drugInventory.config;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// Checks the static HTTP Basic credential a Prometheus server sends on every scrape. Scrapes come every few
+// seconds, so the password is compared in constant time rather than bcrypt-hashed per request. Without a
+// configured password no credential is accepted.
+public class ScrapeAuthenticationProvider implements AuthenticationProvider {
+
+    public static final String SCRAPE_AUTHORITY = "METRICS_SCRAPE";
+
+    private final String username;
+    private final byte[] password;
+
+    public ScrapeAuthenticationProvider(String username, String password) {
+        this.username = username;
+        this.password = password.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String presented = authentication.getCredentials() != null ? authentication.getCredentials().toString() : "";
+        boolean usernameMatches = username.equals(authentication.getName());
+        boolean passwordMatches = MessageDigest.isEqual(password, presented.getBytes(StandardCharsets.UTF_8));
+        if (password.length == 0 || !usernameMatches || !passwordMatches) {
+            throw new BadCredentialsException("Invalid scrape credentials");
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(username, null,
+                AuthorityUtils.createAuthorityList(SCRAPE_AUTHORITY));
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+}
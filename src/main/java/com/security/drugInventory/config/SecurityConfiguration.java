@@ -2,10 +2,15 @@ package com.security.drugInventory.config;
 
 import jakarta.servlet.Filter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -22,24 +27,58 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class SecurityConfiguration implements WebMvcConfigurer{
 
     private final JWTAuthenticationFilter jwtAuthenticationFilter;
+    private final AuthRateLimitFilter authRateLimitFilter;
     private final AuthenticationProvider authenticationProvider;
 
+    // Login failure rates, cache stats and token outcomes are not for anonymous callers, but a scraper cannot
+    // keep renewing a short-lived JWT either, so the endpoint has its own chain with a static HTTP Basic credential
+    @Bean
+    @Order(1)
+    public SecurityFilterChain prometheusFilterChain(
+            HttpSecurity http,
+            @Value("${metrics.scrape.username:prometheus}") String scrapeUsername,
+            @Value("${metrics.scrape.password:}") String scrapePassword) throws Exception {
+        http
+                .securityMatcher("/actuator/prometheus")
+                .csrf(csrf -> csrf.disable())
+                .authorizeHttpRequests(authorize -> authorize
+                        .anyRequest().hasAuthority(ScrapeAuthenticationProvider.SCRAPE_AUTHORITY)
+                )
+                .sessionManagement(session -> session
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .authenticationManager(new ProviderManager(
+                        new ScrapeAuthenticationProvider(scrapeUsername, scrapePassword)))
+                // Set the 401 directly; sendError would dispatch to /error, which the main chain answers with 403
+                .httpBasic(basic -> basic.authenticationEntryPoint((request, response, e) -> {
+                    response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Basic realm=\"metrics\"");
+                    response.setStatus(HttpStatus.UNAUTHORIZED.value());
+                }));
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers("/api/v1/auth/**").permitAll()
-                        .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
-                        .requestMatchers("/api/v1/doctor/**").hasRole("DOCTOR")
-                        .requestMatchers("/api/v1/user/**").hasRole("USER")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
+                        // User authorities (and the roles claim) are the bare role names, without a ROLE_ prefix
+                        .requestMatchers("/api/v1/admin/**").hasAuthority("ADMIN")
+                        .requestMatchers("/api/v1/doctor/**").hasAuthority("DOCTOR")
+                        .requestMatchers("/api/v1/user/**").hasAuthority("USER")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authenticationProvider(authenticationProvider)
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Throttle login and registration attempts before any token or password work is done
+                .addFilterBefore(authRateLimitFilter, JWTAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,130 @@
+package com.security.drugInventory.config;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// In-memory ES256 keyring. Three kinds of keys are published in the JWKS:
+// the active key signs new tokens, the next key is published ahead of time so verifiers
+// with a cached JWKS already know it when it becomes active, and retiring keys keep verifying
+// tokens they signed until those tokens have expired.
+@Slf4j
+@Component
+public class SigningKeyring {
+
+    public record SigningKey(String kid, KeyPair keyPair, Instant retiredAt) {
+
+        SigningKey retire(Instant now) {
+            return new SigningKey(kid, keyPair, now);
+        }
+    }
+
+    private record Snapshot(SigningKey active, SigningKey next, List<SigningKey> retiring) {
+    }
+
+    private final Duration retiredKeyRetention;
+    private volatile Snapshot snapshot;
+
+    public SigningKeyring(@Value("${jwt.signing.retired-key-retention:1h}") Duration retiredKeyRetention) {
+        this.retiredKeyRetention = retiredKeyRetention;
+        this.snapshot = new Snapshot(generate(), generate(), List.of());
+    }
+
+    public SigningKey active() {
+        return snapshot.active();
+    }
+
+    // Public key for a kid, or null when the kid is unknown or past its retention. Retired keys are only pruned
+    // from the snapshot on the next rotation, so retention is checked here as well.
+    public PublicKey publicKey(String kid) {
+        Snapshot current = snapshot;
+        Instant now = Instant.now();
+        if (current.active().kid().equals(kid)) {
+            return current.active().keyPair().getPublic();
+        }
+        if (current.next().kid().equals(kid)) {
+            return current.next().keyPair().getPublic();
+        }
+        for (SigningKey key : current.retiring()) {
+            if (key.kid().equals(kid) && retained(key, now)) {
+                return key.keyPair().getPublic();
+            }
+        }
+        return null;
+    }
+
+    // Promote the pre-published next key, retire the active one and publish a fresh next key
+    public synchronized SigningKey rotate() {
+        Instant now = Instant.now();
+        Snapshot current = snapshot;
+        List<SigningKey> retiring = new ArrayList<>();
+        retiring.add(current.active().retire(now));
+        for (SigningKey key : current.retiring()) {
+            if (retained(key, now)) {
+                retiring.add(key);
+            }
+        }
+        snapshot = new Snapshot(current.next(), generate(), List.copyOf(retiring));
+        log.info("Rotated JWT signing key: active kid {}, {} retiring key(s)", current.next().kid(), retiring.size());
+        return current.next();
+    }
+
+    public List<Map<String, Object>> jwks() {
+        Snapshot current = snapshot;
+        List<Map<String, Object>> keys = new ArrayList<>();
+        keys.add(toJwk(current.active()));
+        keys.add(toJwk(current.next()));
+        Instant now = Instant.now();
+        for (SigningKey key : current.retiring()) {
+            if (retained(key, now)) {
+                keys.add(toJwk(key));
+            }
+        }
+        return keys;
+    }
+
+    private boolean retained(SigningKey key, Instant now) {
+        return key.retiredAt().plus(retiredKeyRetention).isAfter(now);
+    }
+
+    private static SigningKey generate() {
+        return new SigningKey(UUID.randomUUID().toString(), Keys.keyPairFor(SignatureAlgorithm.ES256), null);
+    }
+
+    private static Map<String, Object> toJwk(SigningKey key) {
+        ECPublicKey publicKey = (ECPublicKey) key.keyPair().getPublic();
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("kid", key.kid());
+        jwk.put("use", "sig");
+        jwk.put("alg", "ES256");
+        jwk.put("x", coordinate(publicKey.getW().getAffineX()));
+        jwk.put("y", coordinate(publicKey.getW().getAffineY()));
+        return jwk;
+    }
+
+    // JWK coordinates are the unsigned big-endian value padded to the curve size (32 bytes for P-256)
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] padded = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, padded, 32 - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(padded);
+    }
+}
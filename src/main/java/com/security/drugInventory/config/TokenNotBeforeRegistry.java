@@ -0,0 +1,32 @@
+package com.security.drugInventory.config;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-user "not before" instants. Tokens issued before a user's instant are rejected,
+// which revokes every outstanding token of that user (POST /api/v1/admin/users/{email}/revoke-tokens)
+// without loading the user on each request. Held in memory only, like the revoked token ids without a snapshot.
+@Component
+public class TokenNotBeforeRegistry {
+
+    private final Map<String, Instant> notBeforeBySubject = new ConcurrentHashMap<>();
+
+    public void revokeTokensIssuedBefore(String subject, Instant instant) {
+        // iat has second precision, so a token issued earlier in the same second carries that second as well.
+        // Rounding up to the next second rejects it too, at the cost of tokens issued in the rest of that second.
+        notBeforeBySubject.merge(subject, instant.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1),
+                (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+    }
+
+    public boolean isRevoked(VerifiedClaims claims) {
+        Instant notBefore = notBeforeBySubject.get(claims.getSubject());
+        if (notBefore == null) {
+            return false;
+        }
+        return claims.getIssuedAt() == null || claims.getIssuedAt().isBefore(notBefore);
+    }
+}
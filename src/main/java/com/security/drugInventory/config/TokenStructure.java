@@ -0,0 +1,140 @@
+package com.security.drugInventory.config;
+
+import java.nio.charset.StandardCharsets;
+
+// Structural pre-check for compact JWS tokens, run before the token reaches jjwt.
+// Junk is rejected by walking the characters once: length bounds, exactly three non-empty
+// Base64URL segments, and a header whose "alg" is one we sign with. The header is decoded on
+// the fly into a running match, so the check neither allocates nor throws.
+public final class TokenStructure {
+
+    static final int MIN_LENGTH = 32;
+    static final int MAX_LENGTH = 4096;
+    static final int MAX_HEADER_LENGTH = 512;
+
+    private static final byte[] ALG_PREFIX = "\"alg\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final int[] ALG_PREFIX_FALLBACK = fallbackTable(ALG_PREFIX);
+    private static final long HS256 = pack("HS256");
+    private static final long ES256 = pack("ES256");
+    private static final int MAX_ALG_BYTES = 7;
+
+    private TokenStructure() {
+    }
+
+    public static boolean isWellFormed(String token) {
+        return token != null && isWellFormed(token, 0, token.length());
+    }
+
+    // Checks token.substring(from, to) without creating the substring, e.g. past the "Bearer " prefix
+    public static boolean isWellFormed(String value, int from, int to) {
+        int length = to - from;
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return false;
+        }
+        int firstDot = -1;
+        int secondDot = -1;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (firstDot < 0) {
+                    firstDot = i;
+                } else if (secondDot < 0) {
+                    secondDot = i;
+                } else {
+                    return false;
+                }
+            } else if (decode(c) < 0) {
+                return false;
+            }
+        }
+        if (secondDot < 0 || firstDot == from || secondDot == firstDot + 1 || secondDot == to - 1) {
+            return false;
+        }
+        return firstDot - from <= MAX_HEADER_LENGTH && hasSupportedAlg(value, from, firstDot);
+    }
+
+    // Base64URL-decodes the header segment byte by byte, looking for "alg":" followed by HS256 or ES256
+    private static boolean hasSupportedAlg(String value, int from, int to) {
+        if ((to - from) % 4 == 1) {
+            return false;
+        }
+        int bits = 0;
+        int bitCount = 0;
+        int matched = 0;
+        boolean inAlg = false;
+        long alg = 0;
+        int algBytes = 0;
+        for (int i = from; i < to; i++) {
+            bits = (bits << 6) | decode(value.charAt(i));
+            bitCount += 6;
+            if (bitCount < 8) {
+                continue;
+            }
+            bitCount -= 8;
+            int b = (bits >>> bitCount) & 0xFF;
+            if (inAlg) {
+                if (b == '"') {
+                    return alg == HS256 || alg == ES256;
+                }
+                if (++algBytes > MAX_ALG_BYTES) {
+                    return false;
+                }
+                alg = (alg << 8) | b;
+            } else {
+                while (matched > 0 && ALG_PREFIX[matched] != b) {
+                    matched = ALG_PREFIX_FALLBACK[matched - 1];
+                }
+                if (ALG_PREFIX[matched] == b) {
+                    matched++;
+                }
+                if (matched == ALG_PREFIX.length) {
+                    inAlg = true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int decode(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 26;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 52;
+        }
+        if (c == '-') {
+            return 62;
+        }
+        if (c == '_') {
+            return 63;
+        }
+        return -1;
+    }
+
+    // KMP failure function, so the streamed header bytes never need to be buffered for backtracking
+    private static int[] fallbackTable(byte[] pattern) {
+        int[] table = new int[pattern.length];
+        int k = 0;
+        for (int i = 1; i < pattern.length; i++) {
+            while (k > 0 && pattern[k] != pattern[i]) {
+                k = table[k - 1];
+            }
+            if (pattern[k] == pattern[i]) {
+                k++;
+            }
+            table[i] = k;
+        }
+        return table;
+    }
+
+    private static long pack(String alg) {
+        long packed = 0;
+        for (byte b : alg.getBytes(StandardCharsets.US_ASCII)) {
+            packed = (packed << 8) | (b & 0xFF);
+        }
+        return packed;
+    }
+}
@@ -0,0 +1,72 @@
+package com.security.drugInventory.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.security.drugInventory.user.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Bounded, time-expiring cache in front of a UserDetailsService, keyed by normalized email.
+// Concurrent misses for the same email wait for a single load instead of each hitting the database.
+// Unknown users are not cached, so a later registration is visible immediately.
+// Entries are immutable CachedUser copies, never the JPA entity the delegate returned.
+// The database load runs on the caller's thread outside of any cache lock, so a virtual thread
+// waiting on JDBC does not pin its carrier.
+public class UserDetailsCache implements UserDetailsService {
+
+    private final UserDetailsService delegate;
+    private final AsyncCache<String, UserDetails> cache;
+
+    public UserDetailsCache(UserDetailsService delegate,
+                            long maximumSize,
+                            Duration expireAfterWrite,
+                            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users.details");
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        String email = User.normalizeEmail(username);
+        CompletableFuture<UserDetails> loading = new CompletableFuture<>();
+        CompletableFuture<UserDetails> cached = cache.get(email, (key, executor) -> loading);
+        if (cached == loading) {
+            try {
+                loading.complete(CachedUser.of(delegate.loadUserByUsername(email)));
+            } catch (RuntimeException e) {
+                // Failed futures are dropped by the cache, so the next call retries the load
+                loading.completeExceptionally(e);
+            }
+        }
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Call whenever a user is created or their password or role changes
+    public void evict(String username) {
+        cache.synchronous().invalidate(User.normalizeEmail(username));
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+}
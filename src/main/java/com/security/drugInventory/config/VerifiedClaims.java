@@ -0,0 +1,25 @@
+package com.security.drugInventory.config;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Claims of a token whose signature has already been checked by JWTService.
+// Immutable so it can be shared across request threads without copying.
+@Value
+@Builder
+public class VerifiedClaims {
+    // Token id; null for tokens issued before jti was added
+    UUID jti;
+    String subject;
+    List<String> roles;
+    Instant issuedAt;
+    Instant expiresAt;
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && expiresAt.isBefore(now);
+    }
+}
@@ -0,0 +1,107 @@
+package com.security.drugInventory.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+// Remembers tokens whose signature has already been verified, so repeat requests with the
+// same bearer token skip HMAC verification and claim parsing.
+// Entries are keyed by a SHA-256 digest of the token and expire at the token's own exp.
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<TokenDigest, VerifiedClaims> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.cache.maximum-size:10000}") long maximumSize,
+                              MeterRegistry meterRegistry) {
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpireAtTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+    }
+
+    public static VerifiedTokenCache disabled() {
+        return new VerifiedTokenCache(false, 0, null);
+    }
+
+    // Return the cached claims for this token, or verify it with the loader and remember the result.
+    // Invalid tokens make the loader throw, so they are never cached.
+    public VerifiedClaims get(String token, Function<String, VerifiedClaims> loader) {
+        if (cache == null) {
+            return loader.apply(token);
+        }
+        return cache.get(TokenDigest.of(token), digest -> loader.apply(token));
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public CacheStats stats() {
+        return cache != null ? cache.stats() : CacheStats.empty();
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private record TokenDigest(long h0, long h1, long h2, long h3) {
+
+        static TokenDigest of(String token) {
+            ByteBuffer hash = ByteBuffer.wrap(sha256().digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+
+    private static class ExpireAtTokenExpiry implements Expiry<TokenDigest, VerifiedClaims> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, VerifiedClaims claims, long currentTime) {
+            if (claims.getExpiresAt() == null) {
+                return 0;
+            }
+            Duration remaining = Duration.between(Instant.now(), claims.getExpiresAt());
+            return remaining.isNegative() ? 0 : remaining.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, VerifiedClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, VerifiedClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
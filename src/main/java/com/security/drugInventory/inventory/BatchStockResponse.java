@@ -0,0 +1,36 @@
+package com.security.drugInventory.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchStockResponse {
+    private long batchId;
+    private long drugId;
+    private String batchNumber;
+    private String location;
+    private LocalDate expiresOn;
+    // Available to reserve or dispense
+    private long quantity;
+    // Held by open reservations
+    private long reserved;
+
+    static BatchStockResponse of(StockIndex.BatchInfo batch, long quantity, long reserved) {
+        return BatchStockResponse.builder()
+                .batchId(batch.id())
+                .drugId(batch.drugId())
+                .batchNumber(batch.batchNumber())
+                .location(batch.location())
+                .expiresOn(batch.expiresOn())
+                .quantity(quantity)
+                .reserved(reserved)
+                .build();
+    }
+}
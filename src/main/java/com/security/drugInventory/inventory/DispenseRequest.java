@@ -0,0 +1,17 @@
+package com.security.drugInventory.inventory;
+
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispenseRequest {
+
+    @Positive(message = "Quantity must be positive")
+    private long quantity;
+}
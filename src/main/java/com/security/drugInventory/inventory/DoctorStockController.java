@@ -0,0 +1,56 @@
+package com.security.drugInventory.inventory;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Stock lookups, reservations and dispensing, answered from the in-memory stock index
+@RestController
+@RequestMapping("/api/v1/doctor/stock")
+@RequiredArgsConstructor
+public class DoctorStockController {
+
+    private final InventoryService inventoryService;
+
+    @GetMapping("/drugs/{drugId}")
+    public ResponseEntity<DrugStockResponse> drugStock(@PathVariable long drugId) {
+        return ResponseEntity.ok(inventoryService.drugStock(drugId));
+    }
+
+    @GetMapping("/batches/{batchId}")
+    public ResponseEntity<BatchStockResponse> batchStock(@PathVariable long batchId) {
+        return ResponseEntity.ok(inventoryService.batchStock(batchId));
+    }
+
+    @PostMapping("/batches/{batchId}/dispense")
+    public ResponseEntity<BatchStockResponse> dispense(@PathVariable long batchId,
+                                                       @Valid @RequestBody DispenseRequest request) {
+        return ResponseEntity.ok(inventoryService.dispense(batchId, request.getQuantity()));
+    }
+
+    // Holds stock until the reservation is committed, released or expires
+    @PostMapping("/batches/{batchId}/reservations")
+    public ResponseEntity<ReservationResponse> reserve(@PathVariable long batchId,
+                                                       @Valid @RequestBody ReservationRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(inventoryService.reserve(batchId, request));
+    }
+
+    @PostMapping("/reservations/{reservationId}/commit")
+    public ResponseEntity<BatchStockResponse> commit(@PathVariable long reservationId) {
+        return ResponseEntity.ok(inventoryService.commitReservation(reservationId));
+    }
+
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<Void> release(@PathVariable long reservationId) {
+        inventoryService.releaseReservation(reservationId);
+        return ResponseEntity.noContent().build();
+    }
+}
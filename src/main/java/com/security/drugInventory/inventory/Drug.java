@@ -0,0 +1,25 @@
+package com.security.drugInventory.inventory;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "drug", uniqueConstraints = @UniqueConstraint(name = "uk_drug_code", columnNames = "code"))
+public class Drug {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "drug_seq")
+    @SequenceGenerator(name = "drug_seq", sequenceName = "drug_seq", allocationSize = 50)
+    private Long id;
+    @Column(nullable = false, length = 64)
+    private String code;
+    @Column(nullable = false)
+    private String name;
+    private String unit;
+}
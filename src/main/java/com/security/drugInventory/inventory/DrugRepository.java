@@ -0,0 +1,6 @@
+package com.security.drugInventory.inventory;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DrugRepository extends JpaRepository<Drug, Long> {
+}
@@ -0,0 +1,22 @@
+package com.security.drugInventory.inventory;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DrugRequest {
+
+    @NotBlank(message = "Code is required")
+    private String code;
+
+    @NotBlank(message = "Name is required")
+    private String name;
+
+    private String unit;
+}
@@ -0,0 +1,21 @@
+package com.security.drugInventory.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DrugStockResponse {
+    private long drugId;
+    private String code;
+    private String name;
+    private String unit;
+    private long available;
+    private List<BatchStockResponse> batches;
+}
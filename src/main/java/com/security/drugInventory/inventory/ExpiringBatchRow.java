@@ -0,0 +1,24 @@
+package com.security.drugInventory.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpiringBatchRow {
+    private long batchId;
+    private long drugId;
+    private String drugCode;
+    private String drugName;
+    private String batchNumber;
+    private String location;
+    private LocalDate expiresOn;
+    private long quantity;
+    private long reserved;
+}
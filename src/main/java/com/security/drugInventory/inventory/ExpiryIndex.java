@@ -0,0 +1,115 @@
+package com.security.drugInventory.inventory;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Batches that still have stock on hand, ordered by expiry date, so "what expires between these dates" is a range
+// over a skip list (O(log n + k)) instead of a scan of every batch. Keys pack the expiry day into the high bits and
+// the batch id into the low 40, which keeps them unique and in (date, batch) order as plain longs.
+// The index follows StockIndex through its listener: a batch enters when it is stocked and leaves when it runs out,
+// so dispensing from a batch that stays in stock costs nothing here.
+@Component
+public class ExpiryIndex implements StockIndex.StockListener {
+
+    private static final int BATCH_BITS = 40;
+    private static final long BATCH_MASK = (1L << BATCH_BITS) - 1;
+    private static final int STRIPES = 64;
+    // The 24 bits left for the day hold a signed epoch day, which covers roughly the years -21000 to 24900
+    public static final LocalDate MIN_EXPIRY = LocalDate.ofEpochDay(-(1L << (Long.SIZE - BATCH_BITS - 1)));
+    public static final LocalDate MAX_EXPIRY = LocalDate.ofEpochDay((1L << (Long.SIZE - BATCH_BITS - 1)) - 1);
+
+    private final StockIndex stockIndex;
+    private final NavigableSet<Long> keys = new ConcurrentSkipListSet<>();
+    // Serializes reconciling one batch, so a stale read of its stock cannot undo a newer one
+    private final Object[] stripes = new Object[STRIPES];
+
+    public ExpiryIndex(StockIndex stockIndex) {
+        this.stockIndex = stockIndex;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        stockIndex.setListener(this);
+        // Batches loaded before the listener was in place
+        for (StockIndex.BatchInfo batch : stockIndex.batches()) {
+            inStockChanged(batch.id());
+        }
+    }
+
+    @Override
+    public void inStockChanged(long batchId) {
+        StockIndex.BatchInfo batch = stockIndex.batch(batchId);
+        if (batch == null || batch.expiresOn() == null) {
+            return;
+        }
+        if (batchId <= 0 || batchId > BATCH_MASK) {
+            throw new IllegalArgumentException("Batch id out of range for the expiry index: " + batchId);
+        }
+        if (!covers(batch.expiresOn())) {
+            throw new IllegalArgumentException("Expiry date out of range for the expiry index: " + batch.expiresOn());
+        }
+        long key = key(batch.expiresOn().toEpochDay(), batchId);
+        synchronized (stripes[(int) (batchId & (STRIPES - 1))]) {
+            // Whatever the change was, the current quantity decides
+            if (stockIndex.onHand(batchId) > 0) {
+                keys.add(key);
+            } else {
+                keys.remove(key);
+            }
+        }
+    }
+
+    public static boolean covers(LocalDate date) {
+        return !date.isBefore(MIN_EXPIRY) && !date.isAfter(MAX_EXPIRY);
+    }
+
+    // Ids of batches with stock on hand expiring from one date through another (both inclusive), soonest first.
+    // A live view: batches stocked or emptied while iterating may or may not show up.
+    public Iterable<Long> expiringBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            return List.of();
+        }
+        // No batch lies outside the covered dates, and keys for them would wrap around
+        return ids(keys.subSet(key(clamp(from).toEpochDay(), 0), true, key(clamp(to).toEpochDay(), BATCH_MASK), true));
+    }
+
+    // Ids of batches with stock on hand that expired before the given date, oldest first
+    public Iterable<Long> expiredBefore(LocalDate date) {
+        if (date.isAfter(MAX_EXPIRY)) {
+            return ids(keys);
+        }
+        return ids(keys.headSet(key(clamp(date).toEpochDay(), 0), false));
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    private static Iterable<Long> ids(NavigableSet<Long> range) {
+        return () -> new Iterator<>() {
+            private final Iterator<Long> keys = range.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return keys.hasNext();
+            }
+
+            @Override
+            public Long next() {
+                return keys.next() & BATCH_MASK;
+            }
+        };
+    }
+
+    private static LocalDate clamp(LocalDate date) {
+        return date.isBefore(MIN_EXPIRY) ? MIN_EXPIRY : date.isAfter(MAX_EXPIRY) ? MAX_EXPIRY : date;
+    }
+
+    private static long key(long epochDay, long batchId) {
+        return (epochDay << BATCH_BITS) | batchId;
+    }
+}
@@ -0,0 +1,115 @@
+package com.security.drugInventory.inventory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.drugInventory.audit.AuditEventType;
+import com.security.drugInventory.audit.AuditTrail;
+import com.security.drugInventory.config.NdjsonWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.stream.StreamSupport;
+
+// Near-expiry queries and the expiry write-off, both answered from ExpiryIndex: the cost is the number of
+// batches in the date range, not the number of batches in the inventory.
+@Slf4j
+@Service
+public class ExpiryService {
+
+    private final StockIndex stockIndex;
+    private final ExpiryIndex expiryIndex;
+    private final ReservationEngine reservationEngine;
+    private final AuditTrail auditTrail;
+    private final NdjsonWriter<ExpiringBatchRow> rowWriter;
+    private final Counter writtenOff;
+
+    public ExpiryService(StockIndex stockIndex,
+                         ExpiryIndex expiryIndex,
+                         ReservationEngine reservationEngine,
+                         AuditTrail auditTrail,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+        this.stockIndex = stockIndex;
+        this.expiryIndex = expiryIndex;
+        this.reservationEngine = reservationEngine;
+        this.auditTrail = auditTrail;
+        this.rowWriter = new NdjsonWriter<>(objectMapper, ExpiringBatchRow.class);
+        this.writtenOff = Counter.builder("inventory.expiry.written-off")
+                .description("Units of expired stock written off by the expiry sweep")
+                .register(meterRegistry);
+        Gauge.builder("inventory.expiry.indexed", expiryIndex, ExpiryIndex::size)
+                .description("Batches with stock on hand in the expiry index")
+                .register(meterRegistry);
+    }
+
+    // Streams the batches with stock on hand that expire from today through today + days as NDJSON, soonest
+    // first; returns the number written
+    public long exportExpiring(LocalDate today, int days, OutputStream out) throws IOException {
+        Iterable<Long> batchIds = expiryIndex.expiringBetween(today, today.plusDays(days));
+        return rowWriter.write(StreamSupport.stream(batchIds.spliterator(), false)
+                .map(this::rowOf)
+                // Emptied since it was found
+                .filter(Objects::nonNull), out);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.expiry.sweep-interval:PT1H}")
+    public long writeOffExpired() {
+        return writeOffExpiredBefore(LocalDate.now());
+    }
+
+    // Writes off the available stock of every batch that expired before the given date, through the reservation
+    // log like any other adjustment. Reserved units are left for their reservation to settle; once released they
+    // are written off by a later sweep. Returns the number of units written off.
+    public long writeOffExpiredBefore(LocalDate date) {
+        long units = 0;
+        int batches = 0;
+        for (long batchId : expiryIndex.expiredBefore(date)) {
+            while (true) {
+                long available = stockIndex.quantity(batchId);
+                if (available <= 0) {
+                    break;
+                }
+                // Insufficient only when a reservation took some of it in between; read it again
+                if (reservationEngine.adjust(batchId, -available) != StockIndex.INSUFFICIENT) {
+                    auditTrail.stockMoved(AuditEventType.STOCK_WRITTEN_OFF, batchId, -available);
+                    units += available;
+                    batches++;
+                    break;
+                }
+            }
+        }
+        if (units > 0) {
+            writtenOff.increment(units);
+            log.info("Wrote off {} expired unit(s) from {} batch(es)", units, batches);
+        }
+        return units;
+    }
+
+    private ExpiringBatchRow rowOf(long batchId) {
+        StockIndex.BatchInfo batch = stockIndex.batch(batchId);
+        StockIndex.DrugInfo drug = stockIndex.drug(batch.drugId());
+        long quantity = stockIndex.quantity(batchId);
+        long reserved = stockIndex.reserved(batchId);
+        if (quantity + reserved <= 0) {
+            return null;
+        }
+        return ExpiringBatchRow.builder()
+                .batchId(batch.id())
+                .drugId(drug.id())
+                .drugCode(drug.code())
+                .drugName(drug.name())
+                .batchNumber(batch.batchNumber())
+                .location(batch.location())
+                .expiresOn(batch.expiresOn())
+                .quantity(quantity)
+                .reserved(reserved)
+                .build();
+    }
+}
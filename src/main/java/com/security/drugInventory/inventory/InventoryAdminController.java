@@ -0,0 +1,60 @@
+package com.security.drugInventory.inventory;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/admin/inventory")
+@RequiredArgsConstructor
+public class InventoryAdminController {
+
+    // Far beyond any shelf life; larger values are refused rather than carried into date arithmetic
+    private static final int MAX_EXPIRING_DAYS = 36_500;
+
+    private final InventoryService inventoryService;
+    private final ExpiryService expiryService;
+
+    @PostMapping("/drugs")
+    public ResponseEntity<DrugStockResponse> createDrug(@Valid @RequestBody DrugRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(inventoryService.createDrug(request));
+    }
+
+    @PostMapping("/batches")
+    public ResponseEntity<BatchStockResponse> receiveBatch(@Valid @RequestBody StockBatchRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(inventoryService.receiveBatch(request));
+    }
+
+    @PostMapping("/batches/{batchId}/adjust")
+    public ResponseEntity<BatchStockResponse> adjust(@PathVariable long batchId,
+                                                     @RequestBody StockAdjustmentRequest request) {
+        return ResponseEntity.ok(inventoryService.adjust(batchId, request.getDelta()));
+    }
+
+    // Batches with stock on hand expiring within the next days, soonest first, streamed as NDJSON
+    @GetMapping("/expiring")
+    public void expiring(@RequestParam(defaultValue = "30") int days, HttpServletResponse response) throws IOException {
+        if (days < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "days must not be negative");
+        }
+        if (days > MAX_EXPIRING_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "days must not exceed " + MAX_EXPIRING_DAYS);
+        }
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        expiryService.exportExpiring(LocalDate.now(), days, response.getOutputStream());
+    }
+}
@@ -0,0 +1,23 @@
+package com.security.drugInventory.inventory;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Single row (id 1) holding the reservation log position covered by the last stock write-back.
+// Written with JDBC by InventoryService in the same transaction as the quantities.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "inventory_checkpoint")
+public class InventoryCheckpoint {
+    @Id
+    private Integer id;
+    @Column(name = "log_sequence", nullable = false)
+    private long logSequence;
+}
@@ -0,0 +1,300 @@
+package com.security.drugInventory.inventory;
+
+import com.security.drugInventory.audit.AuditEventType;
+import com.security.drugInventory.audit.AuditTrail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Reservations, dispensing and stock adjustments are served from StockIndex through ReservationEngine without a
+// database round trip. Changed quantities are written behind: every flush interval the dirty batches are drained
+// and updated with JDBC batches, so any number of changes to one batch between two flushes costs a single UPDATE.
+// Each write-back also records the reservation log position it covers, in the same transaction, which is where
+// recovery starts replaying after a crash. Drugs and batches themselves are rare, and are inserted synchronously
+// before they enter the index.
+@Slf4j
+@Service
+public class InventoryService {
+
+    private static final String UPDATE_QUANTITY = "UPDATE stock_batch SET quantity = ? WHERE id = ?";
+    private static final String UPDATE_CHECKPOINT = "UPDATE inventory_checkpoint SET log_sequence = ? WHERE id = 1";
+    private static final String INSERT_CHECKPOINT = "INSERT INTO inventory_checkpoint (id, log_sequence) VALUES (1, ?)";
+
+    private final DrugRepository drugRepository;
+    private final StockBatchRepository stockBatchRepository;
+    private final StockIndex stockIndex;
+    private final ReservationEngine reservationEngine;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditTrail auditTrail;
+    private final int flushBatchSize;
+    private final Timer flushTimer;
+    private final Counter flushedRows;
+    // Log position the database is known to cover; guarded by flush()'s monitor
+    private long writtenBack;
+
+    public InventoryService(DrugRepository drugRepository,
+                            StockBatchRepository stockBatchRepository,
+                            StockIndex stockIndex,
+                            ReservationEngine reservationEngine,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            AuditTrail auditTrail,
+                            MeterRegistry meterRegistry,
+                            @Value("${inventory.write-behind.batch-size:500}") int flushBatchSize) {
+        this.drugRepository = drugRepository;
+        this.stockBatchRepository = stockBatchRepository;
+        this.stockIndex = stockIndex;
+        this.reservationEngine = reservationEngine;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.auditTrail = auditTrail;
+        this.flushBatchSize = flushBatchSize;
+        this.flushTimer = Timer.builder("inventory.writebehind.flush")
+                .description("Write-back of changed stock quantities")
+                .register(meterRegistry);
+        this.flushedRows = Counter.builder("inventory.writebehind.rows")
+                .description("Stock quantities written back to the database")
+                .register(meterRegistry);
+        Gauge.builder("inventory.writebehind.pending", stockIndex, StockIndex::dirtyCount)
+                .description("Batches whose quantity changed since the last write-back")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void load() {
+        List<StockIndex.DrugInfo> drugs = drugRepository.findAll().stream()
+                .map(InventoryService::toInfo)
+                .toList();
+        List<StockBatch> batches = stockBatchRepository.findAllWithDrug();
+        List<StockIndex.BatchInfo> batchInfos = new ArrayList<>(batches.size());
+        long[] quantities = new long[batches.size()];
+        for (int i = 0; i < batches.size(); i++) {
+            batchInfos.add(toInfo(batches.get(i)));
+            quantities[i] = batches.get(i).getQuantity();
+        }
+        stockIndex.load(drugs, batchInfos, quantities);
+        log.info("Loaded {} drug(s) and {} stock batch(es) into the stock index", drugs.size(), batches.size());
+
+        List<Long> checkpoint = jdbcTemplate.queryForList(
+                "SELECT log_sequence FROM inventory_checkpoint WHERE id = 1", Long.class);
+        writtenBack = checkpoint.isEmpty() ? 0 : checkpoint.get(0);
+        reservationEngine.recover(writtenBack);
+        // Persist what recovery replayed, after which the settled part of the log is no longer needed
+        flush();
+        reservationEngine.compactLog(writtenBack);
+    }
+
+    public DrugStockResponse drugStock(long drugId) {
+        StockIndex.DrugInfo drug = stockIndex.drug(drugId);
+        if (drug == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown drug " + drugId);
+        }
+        List<BatchStockResponse> batches = new ArrayList<>();
+        long available = 0;
+        for (StockIndex.BatchInfo batch : stockIndex.batchesOf(drugId)) {
+            BatchStockResponse stock = stockOf(batch);
+            available += stock.getQuantity();
+            batches.add(stock);
+        }
+        return DrugStockResponse.builder()
+                .drugId(drug.id())
+                .code(drug.code())
+                .name(drug.name())
+                .unit(drug.unit())
+                .available(available)
+                .batches(batches)
+                .build();
+    }
+
+    public BatchStockResponse batchStock(long batchId) {
+        return stockOf(requireBatch(batchId));
+    }
+
+    public BatchStockResponse dispense(long batchId, long quantity) {
+        StockIndex.BatchInfo batch = requireUsableBatch(batchId);
+        if (reservationEngine.dispense(batchId, quantity) == StockIndex.INSUFFICIENT) {
+            throw insufficient(batch);
+        }
+        auditTrail.stockMoved(AuditEventType.STOCK_DISPENSED, batchId, -quantity);
+        return stockOf(batch);
+    }
+
+    public BatchStockResponse adjust(long batchId, long delta) {
+        StockIndex.BatchInfo batch = requireBatch(batchId);
+        if (reservationEngine.adjust(batchId, delta) == StockIndex.INSUFFICIENT) {
+            throw insufficient(batch);
+        }
+        auditTrail.stockMoved(AuditEventType.STOCK_ADJUSTED, batchId, delta);
+        return stockOf(batch);
+    }
+
+    public ReservationResponse reserve(long batchId, ReservationRequest request) {
+        StockIndex.BatchInfo batch = requireUsableBatch(batchId);
+        ReservationEngine.Reservation reservation = reservationEngine.reserve(batchId, request.getQuantity(),
+                request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : null);
+        if (reservation == null) {
+            throw insufficient(batch);
+        }
+        return ReservationResponse.of(reservation);
+    }
+
+    public BatchStockResponse commitReservation(long reservationId) {
+        ReservationEngine.Reservation reservation = reservationEngine.commit(reservationId);
+        if (reservation == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Reservation " + reservationId + " is not open; it was settled or has expired");
+        }
+        auditTrail.stockMoved(AuditEventType.STOCK_DISPENSED, reservation.batchId(), -reservation.quantity());
+        return stockOf(requireBatch(reservation.batchId()));
+    }
+
+    public void releaseReservation(long reservationId) {
+        if (!reservationEngine.release(reservationId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Reservation " + reservationId + " is not open; it was settled or has expired");
+        }
+    }
+
+    public DrugStockResponse createDrug(DrugRequest request) {
+        Drug drug;
+        try {
+            drug = drugRepository.saveAndFlush(Drug.builder()
+                    .code(request.getCode().trim())
+                    .name(request.getName())
+                    .unit(request.getUnit())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Drug code already exists: " + request.getCode());
+        }
+        stockIndex.registerDrug(toInfo(drug));
+        return drugStock(drug.getId());
+    }
+
+    public BatchStockResponse receiveBatch(StockBatchRequest request) {
+        if (stockIndex.drug(request.getDrugId()) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown drug " + request.getDrugId());
+        }
+        if (!ExpiryIndex.covers(request.getExpiresOn())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expiry date must be between "
+                    + ExpiryIndex.MIN_EXPIRY + " and " + ExpiryIndex.MAX_EXPIRY);
+        }
+        StockBatch batch;
+        try {
+            batch = stockBatchRepository.saveAndFlush(StockBatch.builder()
+                    .drug(drugRepository.getReferenceById(request.getDrugId()))
+                    .batchNumber(request.getBatchNumber().trim())
+                    .location(request.getLocation().trim())
+                    .expiresOn(request.getExpiresOn())
+                    .quantity(request.getQuantity())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Batch " + request.getBatchNumber() + " is already recorded at " + request.getLocation());
+        }
+        StockIndex.BatchInfo info = toInfo(batch);
+        stockIndex.registerBatch(info, batch.getQuantity());
+        auditTrail.stockMoved(AuditEventType.STOCK_RECEIVED, info.id(), batch.getQuantity());
+        return stockOf(info);
+    }
+
+    // Returns the number of batches written back
+    @Scheduled(fixedDelayString = "${inventory.write-behind.interval:PT1S}")
+    public synchronized int flush() {
+        List<Object[]> updates = new ArrayList<>();
+        long logPosition = reservationEngine.drainForWriteBack(
+                (batchId, quantity) -> updates.add(new Object[]{quantity, batchId}));
+        if (updates.isEmpty()) {
+            // Every change up to logPosition is already in the database, even if the stored checkpoint is older
+            writtenBack = logPosition;
+            reservationEngine.compactLogIfGrown(writtenBack);
+            return 0;
+        }
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPDATE_QUANTITY, updates, flushBatchSize,
+                        (ps, update) -> {
+                            ps.setLong(1, (Long) update[0]);
+                            ps.setLong(2, (Long) update[1]);
+                        });
+                if (jdbcTemplate.update(UPDATE_CHECKPOINT, logPosition) == 0) {
+                    jdbcTemplate.update(INSERT_CHECKPOINT, logPosition);
+                }
+            });
+        } catch (DataAccessException e) {
+            // Keep the changes pending; the next flush writes the then-current quantities
+            updates.forEach(update -> stockIndex.markDirty((Long) update[1]));
+            log.warn("Stock write-back of {} batch(es) failed, retrying on the next flush", updates.size(), e);
+            return 0;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        flushedRows.increment(updates.size());
+        writtenBack = logPosition;
+        reservationEngine.compactLogIfGrown(writtenBack);
+        return updates.size();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        int written = flush();
+        log.info("Wrote back {} stock quantities on shutdown", written);
+    }
+
+    private BatchStockResponse stockOf(StockIndex.BatchInfo batch) {
+        return BatchStockResponse.of(batch, stockIndex.quantity(batch.id()), stockIndex.reserved(batch.id()));
+    }
+
+    private InsufficientStockException insufficient(StockIndex.BatchInfo batch) {
+        return new InsufficientStockException("Batch " + batch.batchNumber() + " has only "
+                + stockIndex.quantity(batch.id()) + " available");
+    }
+
+    private StockIndex.BatchInfo requireBatch(long batchId) {
+        StockIndex.BatchInfo batch = stockIndex.batch(batchId);
+        if (batch == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown stock batch " + batchId);
+        }
+        return batch;
+    }
+
+    // Expired stock waits for the expiry sweep to write it off and can no longer be handed out
+    private StockIndex.BatchInfo requireUsableBatch(long batchId) {
+        StockIndex.BatchInfo batch = requireBatch(batchId);
+        if (batch.expiresOn().isBefore(LocalDate.now())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Batch " + batch.batchNumber() + " expired on " + batch.expiresOn());
+        }
+        return batch;
+    }
+
+    private static StockIndex.DrugInfo toInfo(Drug drug) {
+        return new StockIndex.DrugInfo(drug.getId(), drug.getCode(), drug.getName(), drug.getUnit());
+    }
+
+    private static StockIndex.BatchInfo toInfo(StockBatch batch) {
+        return new StockIndex.BatchInfo(batch.getId(), batch.getDrug().getId(), batch.getBatchNumber(),
+                batch.getLocation(), batch.getExpiresOn());
+    }
+}
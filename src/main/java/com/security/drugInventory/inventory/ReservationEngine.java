@@ -0,0 +1,318 @@
+package com.security.drugInventory.inventory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Reserve, then commit or release, without row locks. A reservation is one CAS on the batch's packed stock word
+// in StockIndex, so reservations on a hot drug contend only on that word and never oversell. Each reservation
+// settles exactly once (a CAS on its state), whichever of commit, release or the expiry sweep gets there first.
+// Every movement is appended to the ReservationLog; commits and direct dispenses wait for it to be durable.
+//
+// The log and the write-behind together make quantities exact across a crash: InventoryService stores the log
+// position covered by each write-back in the same transaction as the quantities, and recovery replays only the
+// stock-changing records after it. Those records are appended under the shared side of a read-write lock and the
+// write-back takes its position under the exclusive side, so no change can fall between the drained quantities and
+// the recorded position. Reserve and release take the shared side too, so that compaction, which holds the exclusive
+// side, sees every reservation either open in memory or settled in the log, never in between.
+@Slf4j
+@Service
+public class ReservationEngine {
+
+    private static final int OPEN = 0;
+    private static final int COMMITTED = 1;
+    private static final int RELEASED = 2;
+
+    public record Reservation(long id, long batchId, long quantity, Instant expiresAt) {
+    }
+
+    private static final class Entry {
+        final Reservation reservation;
+        final AtomicInteger state = new AtomicInteger(OPEN);
+
+        Entry(Reservation reservation) {
+            this.reservation = reservation;
+        }
+    }
+
+    private final StockIndex stockIndex;
+    private final Path logPath;
+    private final Duration defaultTtl;
+    private final long compactEvery;
+    private final Map<Long, Entry> open = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final Counter expired;
+    // Last sequence number when the log was compacted; written under the exclusive side of checkpointLock
+    private volatile long compactedAt;
+    // Sequence numbers only until recover() opens the log file
+    private ReservationLog reservationLog = ReservationLog.inMemory();
+
+    @Autowired
+    public ReservationEngine(StockIndex stockIndex,
+                             @Value("${inventory.reservation.log-path:}") String logPath,
+                             @Value("${inventory.reservation.ttl:5m}") Duration defaultTtl,
+                             @Value("${inventory.reservation.compact-every:10000}") long compactEvery,
+                             MeterRegistry meterRegistry) {
+        this(stockIndex, logPath.isBlank() ? null : Path.of(logPath), defaultTtl, compactEvery, meterRegistry);
+    }
+
+    // Log kept in memory only when logPath is null
+    public ReservationEngine(StockIndex stockIndex, Path logPath, Duration defaultTtl, MeterRegistry meterRegistry) {
+        this(stockIndex, logPath, defaultTtl, 10_000, meterRegistry);
+    }
+
+    // compactEvery: records appended since the last compaction before compactLogIfGrown rewrites the log
+    public ReservationEngine(StockIndex stockIndex, Path logPath, Duration defaultTtl, long compactEvery,
+                             MeterRegistry meterRegistry) {
+        this.stockIndex = stockIndex;
+        this.logPath = logPath;
+        this.defaultTtl = defaultTtl;
+        this.compactEvery = compactEvery;
+        Gauge.builder("inventory.reservations.open", open, Map::size)
+                .description("Reservations that are neither committed, released nor expired")
+                .register(meterRegistry);
+        this.expired = Counter.builder("inventory.reservations.expired")
+                .description("Reservations released by the expiry sweep")
+                .register(meterRegistry);
+    }
+
+    // Rebuilds state from the log once the index holds the quantities last written back, which covered the log up
+    // to checkpoint: later commits, dispenses and adjustments are applied again, and reservations that were open
+    // and have not expired are taken again. Afterwards the log is opened for appending.
+    public void recover(long checkpoint) {
+        List<ReservationLog.Entry> entries = ReservationLog.read(logPath);
+        Map<Long, ReservationLog.Entry> reserved = new LinkedHashMap<>();
+        long lastSequence = 0;
+        int replayed = 0;
+        for (ReservationLog.Entry entry : entries) {
+            lastSequence = entry.sequence();
+            switch (entry.type()) {
+                // A reservation's id is the sequence number of its RESERVE record
+                case RESERVE -> reserved.put(entry.sequence(), entry);
+                case RELEASE, EXPIRE -> reserved.remove(entry.reservationId());
+                case COMMIT, DISPENSE, ADJUST -> {
+                    reserved.remove(entry.reservationId());
+                    if (entry.sequence() > checkpoint) {
+                        long delta = entry.type() == ReservationLog.Type.ADJUST ? entry.amount() : -entry.amount();
+                        // Unknown batches belong to a database that has since been recreated
+                        if (stockIndex.adjust(entry.batchId(), delta) == StockIndex.INSUFFICIENT) {
+                            log.warn("Could not replay {} of {} on batch {}", entry.type(), entry.amount(), entry.batchId());
+                        }
+                        replayed++;
+                    }
+                }
+                case HIGH_WATER -> {
+                }
+            }
+        }
+
+        // Never below the checkpoint, or new records would be taken as already written back and skipped on replay
+        reservationLog = new ReservationLog(logPath, Math.max(lastSequence, checkpoint));
+        long now = System.currentTimeMillis();
+        for (ReservationLog.Entry entry : reserved.values()) {
+            if (entry.expiresAtMillis() <= now || stockIndex.tryReserve(entry.batchId(), entry.amount()) < 0) {
+                reservationLog.append(ReservationLog.Type.EXPIRE, entry.sequence(), entry.batchId(),
+                        entry.amount(), entry.expiresAtMillis());
+                continue;
+            }
+            Reservation reservation = new Reservation(entry.sequence(), entry.batchId(), entry.amount(),
+                    Instant.ofEpochMilli(entry.expiresAtMillis()));
+            open.put(reservation.id(), new Entry(reservation));
+        }
+        log.info("Recovered reservation log: {} record(s), {} replayed after checkpoint {}, {} reservation(s) open",
+                entries.size(), replayed, checkpoint, open.size());
+    }
+
+    // Drops the records up to checkpoint, which the database already covers, except the reservations among them
+    // that are still open. Everything after checkpoint is kept for replay. The exclusive side keeps reservations
+    // from being taken or settled between the snapshot of open ones and the rewrite.
+    public void compactLog(long checkpoint) {
+        checkpointLock.writeLock().lock();
+        try {
+            List<ReservationLog.Entry> keep = new ArrayList<>();
+            for (Entry entry : open.values()) {
+                Reservation r = entry.reservation;
+                if (r.id() <= checkpoint && entry.state.get() == OPEN) {
+                    keep.add(new ReservationLog.Entry(r.id(), ReservationLog.Type.RESERVE, r.id(), r.batchId(),
+                            r.quantity(), r.expiresAt().toEpochMilli()));
+                }
+            }
+            keep.sort((a, b) -> Long.compare(a.sequence(), b.sequence()));
+            reservationLog.rewrite(keep, checkpoint);
+            compactedAt = reservationLog.lastSequence();
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    // Compacts once compactEvery records have been appended since the last time, so the log stays bounded
+    // without rewriting it on every write-back
+    public void compactLogIfGrown(long checkpoint) {
+        if (reservationLog.lastSequence() - compactedAt >= compactEvery) {
+            compactLog(checkpoint);
+        }
+    }
+
+    // Null when less than quantity is available; ttl null for the default
+    public Reservation reserve(long batchId, long quantity, Duration ttl) {
+        long remaining = stockIndex.tryReserve(batchId, quantity);
+        if (remaining == StockIndex.UNKNOWN) {
+            throw new IllegalArgumentException("Unknown batch " + batchId);
+        }
+        if (remaining == StockIndex.INSUFFICIENT) {
+            return null;
+        }
+        Instant expiresAt = Instant.now().plus(ttl != null ? ttl : defaultTtl);
+        Reservation reservation;
+        checkpointLock.readLock().lock();
+        try {
+            // Not awaited: a reservation lost in a crash only frees its stock again
+            long id = reservationLog.append(ReservationLog.Type.RESERVE, 0, batchId, quantity,
+                    expiresAt.toEpochMilli());
+            reservation = new Reservation(id, batchId, quantity, expiresAt);
+            open.put(id, new Entry(reservation));
+        } catch (RuntimeException e) {
+            stockIndex.releaseReserved(batchId, quantity);
+            throw e;
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+        return reservation;
+    }
+
+    // Null when the reservation is unknown or already settled (released or expired)
+    public Reservation commit(long reservationId) {
+        Reservation r;
+        long sequence;
+        checkpointLock.readLock().lock();
+        try {
+            Entry entry = open.get(reservationId);
+            if (entry == null || !entry.state.compareAndSet(OPEN, COMMITTED)) {
+                return null;
+            }
+            r = entry.reservation;
+            try {
+                sequence = reservationLog.append(ReservationLog.Type.COMMIT, r.id(), r.batchId(), r.quantity(), 0);
+                stockIndex.commitReserved(r.batchId(), r.quantity());
+            } catch (RuntimeException e) {
+                entry.state.set(OPEN);
+                throw e;
+            }
+            open.remove(reservationId);
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+        reservationLog.awaitDurable(sequence);
+        return r;
+    }
+
+    public boolean release(long reservationId) {
+        return settle(reservationId, ReservationLog.Type.RELEASE);
+    }
+
+    // Reserve and commit in one step; returns the remaining available quantity or StockIndex.INSUFFICIENT
+    public long dispense(long batchId, long quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative: " + quantity);
+        }
+        return change(ReservationLog.Type.DISPENSE, batchId, -quantity, quantity);
+    }
+
+    // Stock booked in (positive) or written off (negative); same return values as dispense
+    public long adjust(long batchId, long delta) {
+        return change(ReservationLog.Type.ADJUST, batchId, delta, delta);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval:PT5S}")
+    public int releaseExpired() {
+        Instant now = Instant.now();
+        int released = 0;
+        for (Entry entry : open.values()) {
+            Reservation r = entry.reservation;
+            if (!r.expiresAt().isAfter(now) && settle(r.id(), ReservationLog.Type.EXPIRE)) {
+                released++;
+            }
+        }
+        expired.increment(released);
+        return released;
+    }
+
+    // Drains the index for a write-back and returns the log position the drained quantities cover
+    public long drainForWriteBack(StockIndex.QuantityConsumer consumer) {
+        checkpointLock.writeLock().lock();
+        try {
+            stockIndex.drainDirty(consumer);
+            return reservationLog.lastSequence();
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    public int openReservations() {
+        return open.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        reservationLog.close();
+    }
+
+    private boolean settle(long reservationId, ReservationLog.Type type) {
+        checkpointLock.readLock().lock();
+        try {
+            Entry entry = open.get(reservationId);
+            if (entry == null || !entry.state.compareAndSet(OPEN, RELEASED)) {
+                return false;
+            }
+            Reservation r = entry.reservation;
+            stockIndex.releaseReserved(r.batchId(), r.quantity());
+            open.remove(reservationId);
+            reservationLog.append(type, r.id(), r.batchId(), r.quantity(), 0);
+            return true;
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    private long change(ReservationLog.Type type, long batchId, long delta, long logged) {
+        long result;
+        long sequence;
+        checkpointLock.readLock().lock();
+        try {
+            result = stockIndex.adjust(batchId, delta);
+            if (result == StockIndex.UNKNOWN) {
+                throw new IllegalArgumentException("Unknown batch " + batchId);
+            }
+            if (result == StockIndex.INSUFFICIENT) {
+                return result;
+            }
+            try {
+                sequence = reservationLog.append(type, 0, batchId, logged, 0);
+            } catch (RuntimeException e) {
+                stockIndex.adjust(batchId, -delta);
+                throw e;
+            }
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+        reservationLog.awaitDurable(sequence);
+        return result;
+    }
+}
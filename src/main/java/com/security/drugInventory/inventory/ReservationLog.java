@@ -0,0 +1,235 @@
+package com.security.drugInventory.inventory;
+
+import com.security.drugInventory.config.GroupCommit;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.zip.CRC32C;
+
+// Append-only journal of stock movements made through ReservationEngine, with group commit: appenders copy
+// fixed-size records into a shared buffer, and the GroupCommit writer swaps it out, writes it and fsyncs it,
+// so concurrent callers waiting for durability share a single force() instead of paying for one each.
+// Every record carries a sequence number and a CRC32C; a torn tail from a crash is detected and cut off on read.
+// Without a path only sequence numbers are handed out and nothing is written.
+@Slf4j
+public class ReservationLog implements Closeable {
+
+    public enum Type {
+        RESERVE,
+        COMMIT,
+        RELEASE,
+        EXPIRE,
+        DISPENSE,
+        ADJUST,
+        // Changes nothing; written by rewrite() so the highest sequence number handed out survives a restart
+        HIGH_WATER
+    }
+
+    public record Entry(long sequence, Type type, long reservationId, long batchId, long amount, long expiresAtMillis) {
+    }
+
+    // sequence, type, reservation id, batch id, amount, expiry, crc
+    static final int RECORD_BYTES = Long.BYTES + 1 + 4 * Long.BYTES + Integer.BYTES;
+    private static final int BUFFER_BYTES = 4096 * RECORD_BYTES;
+
+    private final Path path;
+    private final GroupCommit groupCommit;
+    private final Condition hasSpace;
+    private FileChannel channel;
+    private ByteBuffer pending;
+    private ByteBuffer spare;
+
+    // Sequence numbers continue after startSequence, normally the last one found by read()
+    public ReservationLog(Path path, long startSequence) {
+        this.path = path;
+        this.groupCommit = new GroupCommit("Reservation log " + path, startSequence);
+        this.hasSpace = groupCommit.newCondition();
+        if (path == null) {
+            return;
+        }
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            this.channel.position(validLength(path));
+            // Drop a torn record left by a crash, so new records follow the last complete one
+            this.channel.truncate(this.channel.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open reservation log " + path, e);
+        }
+        this.pending = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        this.spare = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        groupCommit.start("reservation-log-writer", this::takeBatch);
+    }
+
+    public static ReservationLog inMemory() {
+        return new ReservationLog(null, 0);
+    }
+
+    // Returns the record's sequence number. The record is durable once awaitDurable(sequence) returns.
+    public long append(Type type, long reservationId, long batchId, long amount, long expiresAtMillis) {
+        groupCommit.lock();
+        try {
+            if (path == null) {
+                return groupCommit.next();
+            }
+            while (pending.remaining() < RECORD_BYTES) {
+                hasSpace.awaitUninterruptibly();
+                groupCommit.checkOpen();
+            }
+            // The writer cannot take the buffer before the lock is released, so the record is in it by then
+            long sequence = groupCommit.next();
+            put(pending, new Entry(sequence, type, reservationId, batchId, amount, expiresAtMillis));
+            return sequence;
+        } finally {
+            groupCommit.unlock();
+        }
+    }
+
+    public void awaitDurable(long sequence) {
+        groupCommit.awaitDurable(sequence);
+    }
+
+    public long lastSequence() {
+        return groupCommit.appended();
+    }
+
+    // Replaces the log with the given entries (in order, all at or below after) followed by every record after
+    // after, e.g. to drop settled reservations once the database covers them. Ends with a HIGH_WATER record when
+    // later sequence numbers were dropped, so they are never handed out again.
+    public void rewrite(List<Entry> kept, long after) {
+        if (path == null) {
+            return;
+        }
+        groupCommit.lock();
+        try {
+            groupCommit.checkOpen();
+            long appended = groupCommit.appended();
+            groupCommit.awaitDurable(appended);
+            List<Entry> entries = new ArrayList<>(kept);
+            for (Entry entry : read(path)) {
+                if (entry.sequence() > after) {
+                    entries.add(entry);
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((entries.size() + 1) * RECORD_BYTES);
+            for (Entry entry : entries) {
+                put(buffer, entry);
+            }
+            if (entries.isEmpty() ? appended > 0 : entries.get(entries.size() - 1).sequence() < appended) {
+                put(buffer, new Entry(appended, Type.HIGH_WATER, 0, 0, 0, 0));
+            }
+            buffer.flip();
+            // Written next to the log and renamed over it, so a crash leaves either the old or the new log
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            channel.close();
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(path, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rewrite reservation log " + path, e);
+        } finally {
+            groupCommit.unlock();
+        }
+    }
+
+    // Waits for everything appended so far to be written, then stops the writer
+    @Override
+    public void close() {
+        if (path == null || !groupCommit.close()) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close reservation log {}", path, e);
+        }
+    }
+
+    // Every complete, intact record in order; reading stops at the first torn or corrupt one
+    public static List<Entry> read(Path path) {
+        List<Entry> entries = new ArrayList<>();
+        if (path == null || !Files.exists(path)) {
+            return entries;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            while (buffer.remaining() >= RECORD_BYTES) {
+                int start = buffer.position();
+                int crcAt = start + RECORD_BYTES - Integer.BYTES;
+                if (crc(buffer, start, crcAt) != buffer.getInt(crcAt)) {
+                    log.warn("Reservation log {} is corrupt after {} record(s); ignoring the rest", path, entries.size());
+                    break;
+                }
+                entries.add(new Entry(buffer.getLong(), Type.values()[buffer.get()], buffer.getLong(),
+                        buffer.getLong(), buffer.getLong(), buffer.getLong()));
+                buffer.getInt();
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read reservation log " + path, e);
+        }
+    }
+
+    private static long validLength(Path path) {
+        return (long) read(path).size() * RECORD_BYTES;
+    }
+
+    // Under the lock: swaps in the spare buffer so appends continue while this one is written
+    private GroupCommit.Batch takeBatch() {
+        if (pending.position() == 0) {
+            return null;
+        }
+        ByteBuffer batch = pending;
+        pending = spare;
+        spare = batch;
+        hasSpace.signalAll();
+        return () -> {
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+            } finally {
+                batch.clear();
+            }
+        };
+    }
+
+    private static void put(ByteBuffer buffer, Entry entry) {
+        int start = buffer.position();
+        buffer.putLong(entry.sequence())
+                .put((byte) entry.type().ordinal())
+                .putLong(entry.reservationId())
+                .putLong(entry.batchId())
+                .putLong(entry.amount())
+                .putLong(entry.expiresAtMillis());
+        buffer.putInt(crc(buffer, start, buffer.position()));
+    }
+
+    private static int crc(ByteBuffer buffer, int from, int to) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(to).position(from));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,21 @@
+package com.security.drugInventory.inventory;
+
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequest {
+
+    @Positive(message = "Quantity must be positive")
+    private long quantity;
+
+    // Optional; inventory.reservation.ttl when absent
+    @Positive(message = "Reservation ttl must be positive")
+    private Long ttlSeconds;
+}
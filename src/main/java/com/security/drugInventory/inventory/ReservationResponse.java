@@ -0,0 +1,28 @@
+package com.security.drugInventory.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResponse {
+    private long reservationId;
+    private long batchId;
+    private long quantity;
+    private Instant expiresAt;
+
+    static ReservationResponse of(ReservationEngine.Reservation reservation) {
+        return ReservationResponse.builder()
+                .reservationId(reservation.id())
+                .batchId(reservation.batchId())
+                .quantity(reservation.quantity())
+                .expiresAt(reservation.expiresAt())
+                .build();
+    }
+}
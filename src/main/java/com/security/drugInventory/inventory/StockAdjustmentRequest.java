@@ -0,0 +1,15 @@
+package com.security.drugInventory.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Positive to book stock in, negative to write it off
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentRequest {
+    private long delta;
+}
@@ -0,0 +1,41 @@
+package com.security.drugInventory.inventory;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+// One received batch of a drug at one location. Once inserted, the quantity belongs to StockIndex:
+// the column is excluded from JPA updates and only written back by InventoryService's write-behind flush.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "stock_batch",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_batch",
+                columnNames = {"drug_id", "batch_number", "location"}))
+public class StockBatch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_batch_seq")
+    @SequenceGenerator(name = "stock_batch_seq", sequenceName = "stock_batch_seq", allocationSize = 50)
+    private Long id;
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "drug_id", nullable = false)
+    private Drug drug;
+    @Column(name = "batch_number", nullable = false, length = 64)
+    private String batchNumber;
+    @Column(nullable = false, length = 64)
+    private String location;
+    @Column(name = "expires_on", nullable = false)
+    private LocalDate expiresOn;
+    @Column(nullable = false, updatable = false)
+    private long quantity;
+}
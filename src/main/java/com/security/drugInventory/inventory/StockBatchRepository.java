@@ -0,0 +1,12 @@
+package com.security.drugInventory.inventory;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface StockBatchRepository extends JpaRepository<StockBatch, Long> {
+    // Startup load of the stock index; the drug comes along so no lazy loads follow
+    @Query("select b from StockBatch b join fetch b.drug")
+    List<StockBatch> findAllWithDrug();
+}
@@ -0,0 +1,35 @@
+package com.security.drugInventory.inventory;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBatchRequest {
+
+    @NotNull(message = "Drug id is required")
+    private Long drugId;
+
+    @NotBlank(message = "Batch number is required")
+    private String batchNumber;
+
+    @NotBlank(message = "Location is required")
+    private String location;
+
+    @NotNull(message = "Expiry date is required")
+    private LocalDate expiresOn;
+
+    @PositiveOrZero(message = "Quantity must not be negative")
+    @Max(value = StockIndex.MAX_QUANTITY, message = "Quantity is too large")
+    private long quantity;
+}
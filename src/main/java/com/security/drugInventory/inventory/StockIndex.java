@@ -0,0 +1,372 @@
+package com.security.drugInventory.inventory;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// In-memory stock levels, the source of truth for quantities while the application runs.
+// Every batch gets a slot; batch and drug ids map to slots through primitive hash maps, and the available and
+// reserved quantities of a slot are packed into one long in chunked AtomicLongArrays, one cache line per slot,
+// changed with CAS so reserving and dispensing never take a lock or touch the database. A slot whose on-hand
+// quantity changed sets its bit in a dirty bitmap, which InventoryService drains to write the latest quantities
+// back in batches. Metadata is published copy-on-write through a volatile snapshot;
+// the rare registrations of new drugs and batches serialize on the index lock. A StockListener hears when a batch
+// runs out or is stocked again, which is how ExpiryIndex follows the index without scanning it.
+@Component
+public class StockIndex {
+
+    public static final long UNKNOWN = -1;
+    public static final long INSUFFICIENT = -2;
+
+    // Largest quantity (available or reserved) a batch can hold; both halves of the packed stock word are 31 bits
+    public static final long MAX_QUANTITY = Integer.MAX_VALUE;
+
+    private static final int CHUNK_BITS = 9;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    // Eight longs (64 bytes) per slot, so decrements on neighbouring batches do not false-share a cache line
+    private static final int STRIDE = 8;
+
+    public record DrugInfo(long id, String code, String name, String unit) {
+    }
+
+    public record BatchInfo(long id, long drugId, String batchNumber, String location, LocalDate expiresOn) {
+    }
+
+    @FunctionalInterface
+    public interface QuantityConsumer {
+        void accept(long batchId, long quantity);
+    }
+
+    // Told when a batch's on-hand quantity becomes zero or stops being zero, including when it is registered.
+    // Called on the thread that made the change, after it; read the current state rather than assuming it.
+    @FunctionalInterface
+    public interface StockListener {
+        void inStockChanged(long batchId);
+    }
+
+    // Chunks are shared by every snapshot, so quantities survive the copy when metadata changes
+    private static final class Chunk {
+        // Per slot: reserved quantity in the high 32 bits, available quantity in the low 32 bits
+        final AtomicLongArray stock = new AtomicLongArray(CHUNK_SIZE * STRIDE);
+        final AtomicLongArray dirty = new AtomicLongArray(CHUNK_SIZE / Long.SIZE);
+    }
+
+    private record Snapshot(LongIntHashMap slotByBatch, BatchInfo[] batches, int batchCount,
+                            LongIntHashMap indexByDrug, DrugInfo[] drugs, int[][] slotsByDrug, int drugCount,
+                            Chunk[] chunks) {
+
+        static final Snapshot EMPTY = new Snapshot(new LongIntHashMap(0), new BatchInfo[0], 0,
+                new LongIntHashMap(0), new DrugInfo[0], new int[0][], 0, new Chunk[0]);
+    }
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile StockListener listener = batchId -> {
+    };
+
+    public void setListener(StockListener listener) {
+        this.listener = listener;
+    }
+
+    // Every registered batch, in registration order
+    public List<BatchInfo> batches() {
+        Snapshot s = snapshot;
+        return Arrays.asList(Arrays.copyOf(s.batches(), s.batchCount()));
+    }
+
+    public DrugInfo drug(long drugId) {
+        Snapshot s = snapshot;
+        int index = s.indexByDrug().get(drugId);
+        return index == LongIntHashMap.MISSING ? null : s.drugs()[index];
+    }
+
+    public BatchInfo batch(long batchId) {
+        Snapshot s = snapshot;
+        int slot = s.slotByBatch().get(batchId);
+        return slot == LongIntHashMap.MISSING ? null : s.batches()[slot];
+    }
+
+    public List<BatchInfo> batchesOf(long drugId) {
+        Snapshot s = snapshot;
+        int index = s.indexByDrug().get(drugId);
+        if (index == LongIntHashMap.MISSING) {
+            return List.of();
+        }
+        int[] slots = s.slotsByDrug()[index];
+        List<BatchInfo> batches = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            batches.add(s.batches()[slot]);
+        }
+        return batches;
+    }
+
+    // Available (unreserved) quantity; UNKNOWN when the batch is not in the index
+    public long quantity(long batchId) {
+        Snapshot s = snapshot;
+        int slot = s.slotByBatch().get(batchId);
+        if (slot == LongIntHashMap.MISSING) {
+            return UNKNOWN;
+        }
+        return availableOf(chunk(s, slot).stock.get(offset(slot) * STRIDE));
+    }
+
+    // Quantity held by open reservations; UNKNOWN when the batch is not in the index
+    public long reserved(long batchId) {
+        Snapshot s = snapshot;
+        int slot = s.slotByBatch().get(batchId);
+        if (slot == LongIntHashMap.MISSING) {
+            return UNKNOWN;
+        }
+        return reservedOf(chunk(s, slot).stock.get(offset(slot) * STRIDE));
+    }
+
+    // Available plus reserved, i.e. what is physically on the shelf; UNKNOWN when the batch is not in the index
+    public long onHand(long batchId) {
+        Snapshot s = snapshot;
+        int slot = s.slotByBatch().get(batchId);
+        if (slot == LongIntHashMap.MISSING) {
+            return UNKNOWN;
+        }
+        long stock = chunk(s, slot).stock.get(offset(slot) * STRIDE);
+        return availableOf(stock) + reservedOf(stock);
+    }
+
+    // Available quantity summed over all batches of the drug; UNKNOWN when the drug is not in the index
+    public long totalQuantity(long drugId) {
+        Snapshot s = snapshot;
+        int index = s.indexByDrug().get(drugId);
+        if (index == LongIntHashMap.MISSING) {
+            return UNKNOWN;
+        }
+        long total = 0;
+        for (int slot : s.slotsByDrug()[index]) {
+            total += availableOf(chunk(s, slot).stock.get(offset(slot) * STRIDE));
+        }
+        return total;
+    }
+
+    // Moves amount from available to reserved unless less than amount is available.
+    // Returns the remaining available quantity, INSUFFICIENT, or UNKNOWN for an unknown batch.
+    public long tryReserve(long batchId, long amount) {
+        checkAmount(amount);
+        return update(batchId, -amount, amount);
+    }
+
+    // Takes a reserved amount out of stock for good; the caller must hold a reservation of at least amount.
+    // Returns the available quantity, as do releaseReserved and adjust.
+    public long commitReserved(long batchId, long amount) {
+        checkAmount(amount);
+        return requireApplied(batchId, update(batchId, 0, -amount));
+    }
+
+    // Returns a reserved amount to the available quantity
+    public long releaseReserved(long batchId, long amount) {
+        checkAmount(amount);
+        return requireApplied(batchId, update(batchId, amount, -amount));
+    }
+
+    // Adds delta to the available quantity (negative to dispense or write off) unless it would go below zero;
+    // returns INSUFFICIENT and UNKNOWN like tryReserve
+    public long adjust(long batchId, long delta) {
+        return update(batchId, delta, 0);
+    }
+
+    // Available and reserved share one word, so every change is a single CAS and every read a consistent pair
+    private long update(long batchId, long availableDelta, long reservedDelta) {
+        Snapshot s = snapshot;
+        int slot = s.slotByBatch().get(batchId);
+        if (slot == LongIntHashMap.MISSING) {
+            return UNKNOWN;
+        }
+        Chunk chunk = chunk(s, slot);
+        int offset = offset(slot);
+        int index = offset * STRIDE;
+        for (;;) {
+            long current = chunk.stock.get(index);
+            long available = availableOf(current) + availableDelta;
+            long reserved = reservedOf(current) + reservedDelta;
+            if (available < 0 || reserved < 0) {
+                return INSUFFICIENT;
+            }
+            if (available > MAX_QUANTITY || reserved > MAX_QUANTITY) {
+                throw new IllegalArgumentException("Quantity of batch " + batchId + " would exceed " + MAX_QUANTITY);
+            }
+            if (chunk.stock.compareAndSet(index, current, pack(available, reserved))) {
+                // Reserving and releasing move stock between the halves; only on-hand changes need writing back
+                if (availableDelta + reservedDelta != 0) {
+                    markDirty(chunk, offset);
+                    if ((availableOf(current) + reservedOf(current) == 0) != (available + reserved == 0)) {
+                        listener.inStockChanged(batchId);
+                    }
+                }
+                return available;
+            }
+        }
+    }
+
+    private static long requireApplied(long batchId, long result) {
+        if (result == UNKNOWN) {
+            throw new IllegalArgumentException("Unknown batch " + batchId);
+        }
+        if (result == INSUFFICIENT) {
+            throw new IllegalStateException("Batch " + batchId + " has less reserved than is being settled");
+        }
+        return result;
+    }
+
+    private static void checkAmount(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount must not be negative: " + amount);
+        }
+    }
+
+    public synchronized void registerDrug(DrugInfo drug) {
+        load(List.of(drug), List.of(), new long[0]);
+    }
+
+    // The batch's drug must already be registered
+    public synchronized void registerBatch(BatchInfo batch, long quantity) {
+        load(List.of(), List.of(batch), new long[]{quantity});
+    }
+
+    // Bulk registration in one copy, used for the startup load; quantities line up with batches
+    public synchronized void load(Collection<DrugInfo> drugs, List<BatchInfo> batches, long[] quantities) {
+        Snapshot s = snapshot;
+
+        LongIntHashMap indexByDrug = s.indexByDrug().copy();
+        int drugCount = s.drugCount();
+        DrugInfo[] drugInfos = Arrays.copyOf(s.drugs(), drugCount + drugs.size());
+        int[][] slotsByDrug = Arrays.copyOf(s.slotsByDrug(), drugCount + drugs.size());
+        for (DrugInfo drug : drugs) {
+            int index = indexByDrug.get(drug.id());
+            if (index == LongIntHashMap.MISSING) {
+                index = drugCount++;
+                indexByDrug.put(drug.id(), index);
+                slotsByDrug[index] = new int[0];
+            }
+            drugInfos[index] = drug;
+        }
+
+        LongIntHashMap slotByBatch = s.slotByBatch().copy();
+        int batchCount = s.batchCount();
+        BatchInfo[] batchInfos = Arrays.copyOf(s.batches(), batchCount + batches.size());
+        int chunkCount = (batchCount + batches.size() + CHUNK_SIZE - 1) >>> CHUNK_BITS;
+        Chunk[] chunks = Arrays.copyOf(s.chunks(), Math.max(chunkCount, s.chunks().length));
+        for (int i = s.chunks().length; i < chunks.length; i++) {
+            chunks[i] = new Chunk();
+        }
+        for (int i = 0; i < batches.size(); i++) {
+            BatchInfo batch = batches.get(i);
+            int drugIndex = indexByDrug.get(batch.drugId());
+            if (drugIndex == LongIntHashMap.MISSING) {
+                throw new IllegalArgumentException("Unknown drug " + batch.drugId() + " for batch " + batch.id());
+            }
+            if (slotByBatch.get(batch.id()) != LongIntHashMap.MISSING) {
+                throw new IllegalArgumentException("Batch " + batch.id() + " is already registered");
+            }
+            int slot = batchCount++;
+            slotByBatch.put(batch.id(), slot);
+            batchInfos[slot] = batch;
+            int[] slots = slotsByDrug[drugIndex];
+            slots = Arrays.copyOf(slots, slots.length + 1);
+            slots[slots.length - 1] = slot;
+            slotsByDrug[drugIndex] = slots;
+            if (quantities[i] < 0 || quantities[i] > MAX_QUANTITY) {
+                throw new IllegalArgumentException("Quantity of batch " + batch.id() + " out of range: " + quantities[i]);
+            }
+            // Written before the snapshot is published, so no reader sees the slot without its quantity
+            chunks[slot >>> CHUNK_BITS].stock.set(offset(slot) * STRIDE, pack(quantities[i], 0));
+        }
+
+        snapshot = new Snapshot(slotByBatch, batchInfos, batchCount,
+                indexByDrug, drugInfos, slotsByDrug, drugCount, chunks);
+        for (int i = 0; i < batches.size(); i++) {
+            if (quantities[i] > 0) {
+                listener.inStockChanged(batches.get(i).id());
+            }
+        }
+    }
+
+    // Hands every batch changed since the last drain to the consumer with its on-hand quantity (available plus
+    // reserved, i.e. what is physically on the shelf), and clears its bit.
+    // A change racing with the drain sets the bit again, so it is picked up next time. Returns the number drained.
+    public int drainDirty(QuantityConsumer consumer) {
+        Snapshot s = snapshot;
+        int drained = 0;
+        for (int c = 0; c < s.chunks().length; c++) {
+            Chunk chunk = s.chunks()[c];
+            for (int word = 0; word < chunk.dirty.length(); word++) {
+                if (chunk.dirty.get(word) == 0) {
+                    continue;
+                }
+                // Clear before reading the quantities, so a later change is never lost
+                long bits = chunk.dirty.getAndSet(word, 0);
+                while (bits != 0) {
+                    int offset = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    int slot = (c << CHUNK_BITS) + offset;
+                    long stock = chunk.stock.get(offset * STRIDE);
+                    consumer.accept(s.batches()[slot].id(), availableOf(stock) + reservedOf(stock));
+                    drained++;
+                }
+            }
+        }
+        return drained;
+    }
+
+    // Marks the batch for the next drain again, e.g. after its write-back failed
+    public void markDirty(long batchId) {
+        Snapshot s = snapshot;
+        int slot = s.slotByBatch().get(batchId);
+        if (slot != LongIntHashMap.MISSING) {
+            markDirty(chunk(s, slot), offset(slot));
+        }
+    }
+
+    public int dirtyCount() {
+        int count = 0;
+        for (Chunk chunk : snapshot.chunks()) {
+            for (int word = 0; word < chunk.dirty.length(); word++) {
+                count += Long.bitCount(chunk.dirty.get(word));
+            }
+        }
+        return count;
+    }
+
+    public int batchCount() {
+        return snapshot.batchCount();
+    }
+
+    // Read first: a hot batch is already dirty between flushes, and the read keeps its bitmap word uncontended
+    private static void markDirty(Chunk chunk, int offset) {
+        int word = offset >>> 6;
+        long bit = 1L << offset;
+        if ((chunk.dirty.get(word) & bit) == 0) {
+            chunk.dirty.getAndAccumulate(word, bit, (current, mask) -> current | mask);
+        }
+    }
+
+    private static long pack(long available, long reserved) {
+        return reserved << 32 | available;
+    }
+
+    private static long availableOf(long stock) {
+        return stock & 0xFFFFFFFFL;
+    }
+
+    private static long reservedOf(long stock) {
+        return stock >>> 32;
+    }
+
+    private static Chunk chunk(Snapshot s, int slot) {
+        return s.chunks()[slot >>> CHUNK_BITS];
+    }
+
+    private static int offset(int slot) {
+        return slot & (CHUNK_SIZE - 1);
+    }
+}
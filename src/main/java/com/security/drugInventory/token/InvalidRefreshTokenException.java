@@ -0,0 +1,8 @@
+package com.security.drugInventory.token;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,46 @@
+package com.security.drugInventory.token;
+
+import com.security.drugInventory.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Only the SHA-256 of the opaque token is stored, so a database leak does not hand out usable refresh tokens.
+// Every rotation of one login shares a family id, which is what reuse detection revokes.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "refresh_token",
+        uniqueConstraints = @UniqueConstraint(name = "uk_refresh_token_hash", columnNames = "token_hash"),
+        indexes = {
+                @Index(name = "ix_refresh_token_family", columnList = "family_id"),
+                // Keeps the scheduled purge of expired rows a range scan
+                @Index(name = "ix_refresh_token_expires_at", columnList = "expires_at")
+        })
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    @Column(nullable = false)
+    private Instant expiresAt;
+    private boolean used;
+    private boolean revoked;
+}
@@ -0,0 +1,35 @@
+package com.security.drugInventory.token;
+
+import com.security.drugInventory.user.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    // Fetches the owner in the same query, so a refresh needs a single round trip before the rotation
+    @Query("select t from RefreshToken t join fetch t.user where t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    // Conditional update: of two concurrent refreshes with the same token only one sees a row count of 1
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update RefreshToken t set t.used = true where t.id = :id and t.used = false and t.revoked = false")
+    int markUsed(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update RefreshToken t set t.revoked = true where t.familyId = :familyId")
+    int revokeFamily(@Param("familyId") UUID familyId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update RefreshToken t set t.revoked = true where t.user = :user and t.revoked = false")
+    int revokeAllOf(@Param("user") User user);
+
+    // Expired tokens can never be rotated again, and revocation is final, so neither row is needed any more
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :now or t.revoked = true")
+    int deleteExpiredOrRevoked(@Param("now") Instant now);
+}
@@ -0,0 +1,123 @@
+package com.security.drugInventory.token;
+
+import com.security.drugInventory.user.User;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+// Opaque, single-use refresh tokens. Each refresh consumes the presented token and issues its successor
+// in the same family; presenting an already consumed token revokes the whole family.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final EntityManager entityManager;
+
+    @Value("${jwt.refresh-token.ttl:14d}")
+    private Duration refreshTokenTtl;
+
+    public record Rotation(User user, String refreshToken) {
+    }
+
+    // Start a new family, e.g. after register or a password login
+    @Transactional
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    // For an authenticated principal that is not the entity: the user row is referenced, not loaded
+    @Transactional
+    public String issue(long userId) {
+        return issue(entityManager.getReference(User.class, userId), UUID.randomUUID());
+    }
+
+    // The family revocation has to be committed even though the caller gets an exception
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String presentedToken) {
+        if (presentedToken == null || presentedToken.isBlank()) {
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(presentedToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+        if (current.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidRefreshTokenException("Refresh token expired");
+        }
+        if (current.isUsed() || current.isRevoked() || refreshTokenRepository.markUsed(current.getId()) == 0) {
+            // A consumed token came back: either the client or an attacker holds a stolen copy, so end the session
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            log.warn("Refresh token reuse detected for {}, revoked family {}",
+                    current.getUser().getUsername(), current.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token reuse detected");
+        }
+        return new Rotation(current.getUser(), issue(current.getUser(), current.getFamilyId()));
+    }
+
+    // Logout: end the login the token belongs to, whether or not the token was already rotated
+    @Transactional
+    public void revoke(String presentedToken) {
+        if (presentedToken == null || presentedToken.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHash(hash(presentedToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    // Ends every login of the user, e.g. when an admin revokes all of their tokens
+    @Transactional
+    public void revokeAll(User user) {
+        refreshTokenRepository.revokeAllOf(user);
+    }
+
+    // Every login inserts a row; without this the table only grows. Used tokens are kept until they expire,
+    // so presenting one again is still detected as reuse.
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.purge-interval:PT1H}")
+    @Transactional
+    public int purge() {
+        int deleted = refreshTokenRepository.deleteExpiredOrRevoked(Instant.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired or revoked refresh token(s)", deleted);
+        }
+        return deleted;
+    }
+
+    private String issue(User user, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .user(user)
+                .expiresAt(Instant.now().plus(refreshTokenTtl))
+                .build());
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
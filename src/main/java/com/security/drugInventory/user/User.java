@@ -11,28 +11,43 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "_user")
+@Table(name = "_user", uniqueConstraints = @UniqueConstraint(name = "uk_user_email", columnNames = "email"))
 public class User implements UserDetails {
 //    @Id
 //    @GeneratedValue
 //    private String id;
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Use appropriate strategy if UUID
+    // A pooled sequence (one round trip per 50 ids) keeps inserts batchable; IDENTITY forces one insert per statement
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
     private int age;
     private String firstname;
     private String lastname;
+    @Column(nullable = false)
     private String email;
     private String password;
     @Enumerated(EnumType.STRING)
     private Role role;
 
+    // Emails are stored trimmed and lower-cased so the unique index also covers case variants
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalize() {
+        email = normalizeEmail(email);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority(role.name()));
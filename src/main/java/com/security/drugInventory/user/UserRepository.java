@@ -1,9 +1,37 @@
 package com.security.drugInventory.user;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
-    Optional<User> findByEmail(String email);
+    // Normalizes the email the same way User stores it, so the lookup is served by the unique index
+    default Optional<User> findByEmail(String email) {
+        return findByNormalizedEmail(User.normalizeEmail(email));
+    }
+
+    @Query("select u from User u where u.email = :email")
+    Optional<User> findByNormalizedEmail(@Param("email") String email);
+
+    // Which of these (already normalized) emails are taken, in one indexed query
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Forward-only cursor over every user, read in fetch-size batches. Must be consumed inside a transaction
+    // (the Postgres driver only honours the fetch size with autocommit off) and closed afterwards.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select u from User u order by u.id")
+    Stream<User> streamAll();
 }
@@ -0,0 +1,110 @@
+package com.security.drugInventory.benchmark;
+
+import com.security.drugInventory.audit.AuditEventType;
+import com.security.drugInventory.audit.AuditLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// One durable audit record per operation from four threads: an append to AuditLog followed by waiting for its
+// group commit, against an autocommitted single-row INSERT per event, the synchronous database write it replaces.
+// The database is a file-based H2 under target/ (no PostgreSQL in the benchmark environment), which makes the JDBC
+// side optimistic: there is no network round trip, and H2 does not fsync each commit. auditLogAppendOnly is the
+// append alone, without waiting for the fsync.
+// Run with: ./mvnw -Pbenchmark verify -Djmh.include=AuditLogBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class AuditLogBenchmark {
+
+    private static final Path DIRECTORY = Path.of("target", "audit-log-benchmark");
+    private static final String URL = "jdbc:h2:file:./target/audit-log-benchmark-db/audit";
+
+    private AuditLog auditLog;
+
+    @State(Scope.Thread)
+    public static class JdbcWriter {
+        Connection connection;
+        PreparedStatement insert;
+
+        @Setup
+        public void setUp() throws SQLException {
+            connection = DriverManager.getConnection(URL, "sa", "");
+            insert = connection.prepareStatement(
+                    "INSERT INTO audit_event (occurred_at, type, actor, subject_id, amount) VALUES (?, ?, ?, ?, ?)");
+        }
+
+        @TearDown
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        deleteRecursively(DIRECTORY);
+        deleteRecursively(Path.of("target", "audit-log-benchmark-db"));
+        auditLog = new AuditLog(DIRECTORY, 64 * 1024 * 1024, Duration.ofHours(1));
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE audit_event (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "occurred_at TIMESTAMP NOT NULL, type SMALLINT NOT NULL, actor VARCHAR(255) NOT NULL, "
+                    + "subject_id BIGINT NOT NULL, amount BIGINT NOT NULL)");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        auditLog.close();
+    }
+
+    @Benchmark
+    public long auditLog() {
+        long sequence = auditLog.append(AuditEventType.STOCK_DISPENSED, "nurse@example.com", 42, -1);
+        auditLog.awaitDurable(sequence);
+        return sequence;
+    }
+
+    // The cost on the caller's thread when it does not wait for the group commit
+    @Benchmark
+    public long auditLogAppendOnly() {
+        return auditLog.append(AuditEventType.STOCK_DISPENSED, "nurse@example.com", 42, -1);
+    }
+
+    @Benchmark
+    public int jdbcInsert(JdbcWriter writer) throws SQLException {
+        PreparedStatement insert = writer.insert;
+        insert.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+        insert.setShort(2, (short) AuditEventType.STOCK_DISPENSED.ordinal());
+        insert.setString(3, "nurse@example.com");
+        insert.setLong(4, 42);
+        insert.setLong(5, -1);
+        return insert.executeUpdate();
+    }
+
+    private static void deleteRecursively(Path path) throws Exception {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.security.drugInventory.benchmark;
+
+import com.security.drugInventory.audit.AuditEventType;
+import com.security.drugInventory.audit.AuditPipeline;
+import com.security.drugInventory.audit.AuditRecord;
+import com.security.drugInventory.audit.AuditTrail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// What an audit event costs the request thread, from four threads into the same audit log directory: publishing
+// to AuditPipeline, which returns once the event is in the ring buffer, against writing it to AuditTrail and
+// waiting for the fsync as a synchronous audit write would. The pipeline drops on overflow; the dropped counter
+// printed at teardown shows whether the consumer kept up.
+// Run with: ./mvnw -Pbenchmark verify -Djmh.include=AuditPipelineBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class AuditPipelineBenchmark {
+
+    private static final Path DIRECTORY = Path.of("target", "audit-pipeline-benchmark");
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuditTrail auditTrail;
+    private AuditPipeline pipeline;
+
+    @Setup
+    public void setUp() throws Exception {
+        if (Files.exists(DIRECTORY)) {
+            try (Stream<Path> files = Files.walk(DIRECTORY)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+        meterRegistry = new SimpleMeterRegistry();
+        auditTrail = new AuditTrail(DIRECTORY.toString(), DataSize.ofMegabytes(64), Duration.ofHours(1));
+        pipeline = new AuditPipeline(auditTrail, 8192, 256, AuditPipeline.OverflowPolicy.DROP, 10,
+                Duration.ZERO, Duration.ofSeconds(10), meterRegistry);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pipeline.close();
+        auditTrail.close();
+        System.out.printf("%naudit.pipeline.written=%.0f dropped=%.0f%n",
+                meterRegistry.get("audit.pipeline.written").counter().count(),
+                meterRegistry.get("audit.pipeline.dropped").tag("reason", "full").counter().count());
+    }
+
+    @Benchmark
+    public boolean publish() {
+        return pipeline.publish(AuditEventType.TOKEN_INVALID, "10.0.0.1", 0, 0);
+    }
+
+    @Benchmark
+    public void writeAndWait() {
+        auditTrail.write(List.of(new AuditRecord(Instant.now(), AuditEventType.TOKEN_INVALID, "10.0.0.1", 0, 0)));
+    }
+}
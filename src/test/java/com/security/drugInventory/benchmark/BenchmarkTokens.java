@@ -0,0 +1,73 @@
+package com.security.drugInventory.benchmark;
+
+import com.security.drugInventory.config.JWTService;
+import com.security.drugInventory.user.Role;
+import com.security.drugInventory.user.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+// Valid, expired, tampered and junk tokens shared by the benchmarks
+final class BenchmarkTokens {
+
+    static final String SECRET_KEY = "b2e7c6e1f29f13e0d8a6b5c3e07a8b9c6a3f9c8b27f93eac5641d3c72a9a6b0c";
+
+    static final User USER = User.builder()
+            .email("user@example.com")
+            .password("encodedPassword")
+            .role(Role.USER)
+            .build();
+
+    private BenchmarkTokens() {
+    }
+
+    static String of(String type, JWTService jwtService) {
+        return switch (type) {
+            case "valid" -> valid(jwtService);
+            case "expired" -> expired();
+            case "tampered" -> tampered(jwtService);
+            case "junk" -> junk();
+            default -> throw new IllegalArgumentException("Unknown token type: " + type);
+        };
+    }
+
+    static String valid(JWTService jwtService) {
+        return jwtService.generateToken(USER);
+    }
+
+    static String expired() {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .claim("roles", List.of(Role.USER.name()))
+                .setSubject(USER.getUsername())
+                .setIssuedAt(new Date(now - 1000 * 60 * 60 * 48))
+                .setExpiration(new Date(now - 1000 * 60 * 60 * 24))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    static String tampered(JWTService jwtService) {
+        String token = valid(jwtService);
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char flipped = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+        return token.substring(0, signatureStart) + flipped + token.substring(signatureStart + 1);
+    }
+
+    // Three dot-separated segments of random bytes, like the garbage bots spray at the API
+    static String junk() {
+        Random random = new Random(42);
+        return segment(random, 24) + "." + segment(random, 96) + "." + segment(random, 32);
+    }
+
+    private static String segment(Random random, int bytes) {
+        byte[] data = new byte[bytes];
+        random.nextBytes(data);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(data);
+    }
+}
@@ -0,0 +1,71 @@
+package com.security.drugInventory.benchmark;
+
+import com.security.drugInventory.inventory.ExpiryIndex;
+import com.security.drugInventory.inventory.StockIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// "What expires in the next week" over batches spread evenly across three years of expiry dates: a range over
+// ExpiryIndex against the scan of every batch it replaces. Both return the number of batches found.
+// Run with: ./mvnw -Pbenchmark verify -Djmh.include=ExpiryIndexBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpiryIndexBenchmark {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+    private static final int DAYS = 3 * 365;
+    private static final int WINDOW = 7;
+
+    @Param({"100000", "1000000"})
+    public int batches;
+
+    private StockIndex index;
+    private ExpiryIndex expiryIndex;
+
+    @Setup
+    public void setUp() {
+        index = new StockIndex();
+        expiryIndex = new ExpiryIndex(index);
+        List<StockIndex.BatchInfo> infos = new ArrayList<>(batches);
+        for (long id = 1; id <= batches; id++) {
+            infos.add(new StockIndex.BatchInfo(id, 1, "B-" + id, "Ward A", TODAY.plusDays(id % DAYS)));
+        }
+        long[] quantities = new long[batches];
+        Arrays.fill(quantities, 100);
+        index.load(List.of(new StockIndex.DrugInfo(1, "AMX-500", "Amoxicillin 500mg", "capsule")),
+                infos, quantities);
+    }
+
+    @Benchmark
+    public long range() {
+        LocalDate from = TODAY.plusDays(ThreadLocalRandom.current().nextInt(DAYS - WINDOW));
+        long found = 0;
+        for (long ignored : expiryIndex.expiringBetween(from, from.plusDays(WINDOW))) {
+            found++;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public long scan() {
+        LocalDate from = TODAY.plusDays(ThreadLocalRandom.current().nextInt(DAYS - WINDOW));
+        LocalDate to = from.plusDays(WINDOW);
+        long found = 0;
+        for (StockIndex.BatchInfo batch : index.batches()) {
+            if (!batch.expiresOn().isBefore(from) && !batch.expiresOn().isAfter(to) && index.onHand(batch.id()) > 0) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
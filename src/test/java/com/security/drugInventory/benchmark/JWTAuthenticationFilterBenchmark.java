@@ -0,0 +1,67 @@
+package com.security.drugInventory.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.drugInventory.audit.AuditPipeline;
+import com.security.drugInventory.config.AuthenticationMetrics;
+import com.security.drugInventory.config.JWTAuthenticationFilter;
+import com.security.drugInventory.config.JWTService;
+import com.security.drugInventory.config.RevokedTokenStore;
+import com.security.drugInventory.config.TokenNotBeforeRegistry;
+import com.security.drugInventory.config.VerifiedTokenCache;
+import jakarta.servlet.FilterChain;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Full pass through JWTAuthenticationFilter with mock servlet objects and an in-memory user lookup,
+// so the numbers cover header handling, validation, principal building and error responses.
+// Run with: ./mvnw -Pbenchmark verify -Djmh.include=JWTAuthenticationFilterBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"valid", "expired", "tampered", "junk"})
+    public String tokenType;
+
+    private JWTAuthenticationFilter filter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() {
+        JWTService jwtService = new JWTService(BenchmarkTokens.SECRET_KEY, VerifiedTokenCache.disabled());
+        filter = new JWTAuthenticationFilter(jwtService, username -> BenchmarkTokens.USER,
+                new TokenNotBeforeRegistry(), RevokedTokenStore.inMemory(),
+                new AuthenticationMetrics(new SimpleMeterRegistry()),
+                // Rejections are published as in production; the sink discards them
+                new AuditPipeline(records -> { }, 8192, 256, AuditPipeline.OverflowPolicy.DROP, 1,
+                        Duration.ZERO, Duration.ofSeconds(1), new SimpleMeterRegistry()),
+                new ObjectMapper());
+        authorizationHeader = "Bearer " + BenchmarkTokens.of(tokenType, jwtService);
+    }
+
+    @Benchmark
+    public int doFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/demo");
+        request.addHeader("Authorization", authorizationHeader);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+}
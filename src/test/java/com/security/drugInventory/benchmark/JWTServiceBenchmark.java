@@ -0,0 +1,62 @@
+package com.security.drugInventory.benchmark;
+
+import com.security.drugInventory.config.JWTService;
+import com.security.drugInventory.config.VerifiedClaims;
+import com.security.drugInventory.config.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Compares validation with the cached key and parser against the old per-call construction,
+// and against a repeat token served from the verified-token cache; also measures token generation.
+// Run with: ./mvnw -Pbenchmark verify -Djmh.include=JWTServiceBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTServiceBenchmark {
+
+    private JWTService jwtService;
+    private JWTService cachingJwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JWTService(BenchmarkTokens.SECRET_KEY, VerifiedTokenCache.disabled());
+        token = BenchmarkTokens.valid(jwtService);
+        cachingJwtService = new JWTService(BenchmarkTokens.SECRET_KEY,
+                new VerifiedTokenCache(true, 10_000, new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public VerifiedClaims validateCachedParser() {
+        return jwtService.validateToken(token);
+    }
+
+    @Benchmark
+    public VerifiedClaims validateWithTokenCache() {
+        return cachingJwtService.validateToken(token);
+    }
+
+    @Benchmark
+    public Claims validatePerCallParser() {
+        // What extractAllClaims did before the key and parser were built once at startup
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(BenchmarkTokens.SECRET_KEY)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(BenchmarkTokens.USER);
+    }
+}
@@ -0,0 +1,105 @@
+package com.security.drugInventory.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fires logins at a running instance from a fixed number of concurrent clients and reports throughput,
+// latency percentiles and failed responses by status. Start the application once with
+// spring.threads.virtual.enabled=true and once with false (and rate-limit.auth.enabled=false, or every
+// client on this machine shares one per-IP bucket and gets 429), then run:
+//   java -cp <test classpath> com.security.drugInventory.benchmark.LoginLoadDriver [baseUrl] [users] [requests] [clients]
+public class LoginLoadDriver {
+
+    private static final String PASSWORD = "password123";
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+        int clients = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            run(executor, users, clients, i -> post(client, baseUrl + "/api/v1/auth/register",
+                    "{\"firstname\":\"Load\",\"lastname\":\"User\",\"email\":\"" + email(i)
+                            + "\",\"password\":\"" + PASSWORD + "\",\"role\":\"USER\"}"));
+
+            long[] latencies = new long[requests];
+            Map<Integer, AtomicInteger> failures = new ConcurrentSkipListMap<>();
+            long started = System.nanoTime();
+            run(executor, requests, clients, i -> {
+                long begin = System.nanoTime();
+                int status = post(client, baseUrl + "/api/v1/auth/authenticate",
+                        "{\"email\":\"" + email(i % users) + "\",\"password\":\"" + PASSWORD + "\"}");
+                latencies[i] = System.nanoTime() - begin;
+                if (status != 200) {
+                    failures.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+                }
+                return status;
+            });
+            long elapsed = System.nanoTime() - started;
+
+            Arrays.sort(latencies);
+            System.out.printf("requests=%d users=%d clients=%d failures=%s%n", requests, users, clients, failures);
+            System.out.printf("throughput=%.1f req/s%n", requests / (elapsed / 1e9));
+            System.out.printf("p50=%.1f ms p99=%.1f ms max=%.1f ms%n",
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+        }
+    }
+
+    private interface Call {
+        int apply(int index) throws Exception;
+    }
+
+    // At most `clients` calls in flight; each finished call lets the next one start
+    private static void run(ExecutorService executor, int count, int clients, Call call) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(count);
+        Semaphore inFlight = new Semaphore(clients);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            inFlight.acquire();
+            executor.submit(() -> {
+                try {
+                    call.apply(index);
+                } catch (Exception e) {
+                    System.err.println("request " + index + " failed: " + e);
+                } finally {
+                    inFlight.release();
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private static int post(HttpClient client, String url, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String email(int index) {
+        return "load-user-" + index + "@example.com";
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,79 @@
+package com.security.drugInventory.benchmark;
+
+import com.security.drugInventory.inventory.ReservationEngine;
+import com.security.drugInventory.inventory.StockIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Reserve-then-commit from concurrent threads, the dispensing path of the doctor endpoints.
+// "memory" keeps the reservation log in memory to isolate the CAS and lock costs; "file" adds the durable log,
+// where commits wait for the group-committed fsync.
+// Run with: ./mvnw -Pbenchmark verify -Djmh.include=ReservationEngineBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ReservationEngineBenchmark {
+
+    private static final int BATCHES = 10_000;
+
+    @Param({"hot", "spread"})
+    public String access;
+
+    @Param({"memory", "file"})
+    public String log;
+
+    private ReservationEngine engine;
+    private Path logDirectory;
+
+    @Setup
+    public void setUp() throws IOException {
+        StockIndex index = new StockIndex();
+        List<StockIndex.BatchInfo> batches = new ArrayList<>(BATCHES);
+        for (long id = 1; id <= BATCHES; id++) {
+            batches.add(new StockIndex.BatchInfo(id, 1, "B-" + id, "Ward A", LocalDate.of(2027, 1, 31)));
+        }
+        long[] quantities = new long[BATCHES];
+        Arrays.fill(quantities, StockIndex.MAX_QUANTITY);
+        index.load(List.of(new StockIndex.DrugInfo(1, "AMX-500", "Amoxicillin 500mg", "capsule")),
+                batches, quantities);
+
+        logDirectory = Files.createTempDirectory("reservation-log");
+        Path logPath = "file".equals(log) ? logDirectory.resolve("reservations.log") : null;
+        engine = new ReservationEngine(index, logPath, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        engine.recover(0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        engine.close();
+        try (var files = Files.walk(logDirectory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Object reserveAndCommit() {
+        long batchId = "hot".equals(access) ? 1 : 1 + ThreadLocalRandom.current().nextInt(BATCHES);
+        ReservationEngine.Reservation reservation = engine.reserve(batchId, 1, null);
+        if (reservation == null) {
+            engine.adjust(batchId, StockIndex.MAX_QUANTITY / 2);
+            return null;
+        }
+        return engine.commit(reservation.id());
+    }
+}
@@ -0,0 +1,50 @@
+package com.security.drugInventory.benchmark;
+
+import com.security.drugInventory.config.RevokedTokenStore;
+import com.security.drugInventory.config.VerifiedClaims;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Revocation lookup done by JWTAuthenticationFilter for every request; the gc profiler should report ~0 B/op.
+// Run with: ./mvnw -Pbenchmark verify -Djmh.include=RevokedTokenStoreBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RevokedTokenStoreBenchmark {
+
+    @Param({"1000", "100000"})
+    public int revokedTokens;
+
+    private RevokedTokenStore store;
+    private VerifiedClaims revoked;
+    private VerifiedClaims notRevoked;
+
+    @Setup
+    public void setUp() {
+        store = RevokedTokenStore.inMemory();
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        UUID last = null;
+        for (int i = 0; i < revokedTokens; i++) {
+            last = UUID.randomUUID();
+            store.revoke(last, expiresAt);
+        }
+        revoked = VerifiedClaims.builder().jti(last).build();
+        notRevoked = VerifiedClaims.builder().jti(UUID.randomUUID()).build();
+    }
+
+    @Benchmark
+    public boolean revokedHit() {
+        return store.isRevoked(revoked);
+    }
+
+    @Benchmark
+    public boolean revokedMiss() {
+        return store.isRevoked(notRevoked);
+    }
+}
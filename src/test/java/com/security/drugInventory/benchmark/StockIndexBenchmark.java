@@ -0,0 +1,54 @@
+package com.security.drugInventory.benchmark;
+
+import com.security.drugInventory.inventory.StockIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Concurrent dispensing against StockIndex. "hot" sends every thread to the same batch (CAS contention on one
+// cache line), "spread" picks a random batch per call, the common case of many wards on many drugs.
+// Run with: ./mvnw -Pbenchmark verify -Djmh.include=StockIndexBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class StockIndexBenchmark {
+
+    private static final int BATCHES = 10_000;
+
+    @Param({"hot", "spread"})
+    public String access;
+
+    private StockIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new StockIndex();
+        List<StockIndex.BatchInfo> batches = new ArrayList<>(BATCHES);
+        for (long id = 1; id <= BATCHES; id++) {
+            batches.add(new StockIndex.BatchInfo(id, 1, "B-" + id, "Ward A", LocalDate.of(2027, 1, 31)));
+        }
+        long[] quantities = new long[BATCHES];
+        Arrays.fill(quantities, StockIndex.MAX_QUANTITY);
+        index.load(List.of(new StockIndex.DrugInfo(1, "AMX-500", "Amoxicillin 500mg", "capsule")),
+                batches, quantities);
+    }
+
+    @Benchmark
+    public long decrement() {
+        long batchId = "hot".equals(access) ? 1 : 1 + ThreadLocalRandom.current().nextInt(BATCHES);
+        long remaining = index.adjust(batchId, -1);
+        if (remaining == StockIndex.INSUFFICIENT) {
+            index.adjust(batchId, StockIndex.MAX_QUANTITY);
+        }
+        return remaining;
+    }
+}
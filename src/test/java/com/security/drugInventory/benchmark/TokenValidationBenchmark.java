@@ -0,0 +1,39 @@
+package com.security.drugInventory.benchmark;
+
+import com.security.drugInventory.config.JWTService;
+import com.security.drugInventory.config.VerifiedTokenCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Validation cost for valid, expired and tampered tokens through extractAllClaims/isTokenValid.
+// Run with: ./mvnw -Pbenchmark verify -Djmh.include=TokenValidationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenValidationBenchmark {
+
+    @Param({"valid", "expired", "tampered", "junk"})
+    public String tokenType;
+
+    private JWTService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JWTService(BenchmarkTokens.SECRET_KEY, VerifiedTokenCache.disabled());
+        token = BenchmarkTokens.of(tokenType, jwtService);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        try {
+            return jwtService.isTokenValid(token, BenchmarkTokens.USER);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.security.drugInventory.benchmark;
+
+import com.security.drugInventory.DrugInventoryApplication;
+import com.security.drugInventory.admin.UserExportService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Full NDJSON export of a million users against a file-backed H2 database.
+// The fork runs with a 256 MB heap, well below what the same rows would need as a loaded List<User>,
+// so finishing at all shows the export streams; the gc profiler's B/op divided by the row count
+// gives the per-user allocation.
+// Run with: ./mvnw -Pbenchmark verify -Djmh.include=UserExportBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class UserExportBenchmark {
+
+    private static final int INSERT_BATCH = 10_000;
+
+    @Param("1000000")
+    public int users;
+
+    private ConfigurableApplicationContext context;
+    private UserExportService userExportService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DrugInventoryApplication.class)
+                .web(WebApplicationType.NONE)
+                // Command-line arguments, so they take precedence over application.yml
+                .run(
+                        "--spring.datasource.url=jdbc:h2:file:./target/user-export-benchmark",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database=h2",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.show-sql=false");
+        userExportService = context.getBean(UserExportService.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < users; i++) {
+            rows.add(new Object[]{"Export", "User", "user-" + i + "@example.com", "encodedPassword", "USER"});
+            if (rows.size() == INSERT_BATCH || i == users - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO _user (id, age, firstname, lastname, email, password, role) "
+                        + "VALUES (NEXT VALUE FOR user_seq, 30, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        long exported = userExportService.export(out);
+        if (exported != users) {
+            throw new IllegalStateException("Exported " + exported + " of " + users + " users");
+        }
+        return out.bytes;
+    }
+
+    // Stands in for the servlet response: counts what would be sent without keeping it
+    private static final class CountingOutputStream extends OutputStream {
+
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.config.ApplicationConfig;
+import com.security.drugInventory.config.UserDetailsCache;
+import com.security.drugInventory.user.Role;
+import com.security.drugInventory.user.User;
+import com.security.drugInventory.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ApplicationConfigTest {
+
+    @Test
+    void testAuthenticate_WeakerHashIsUpgradedAndCachedUserEvicted() {
+        // Arrange: the stored hash has cost 4, the encoder is pinned to cost 5
+        User user = User.builder()
+                .id(1L)
+                .email("user@example.com")
+                .password(new BCryptPasswordEncoder(4).encode("password"))
+                .role(Role.USER)
+                .build();
+        String weakHash = user.getPassword();
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                // Binds the "5m"-style durations of the @Value fields, as in the application
+                .withInitializer(context -> context.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withUserConfiguration(ApplicationConfig.class)
+                .withBean(UserRepository.class, () -> userRepository)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withBean(AuthenticationConfiguration.class, () -> mock(AuthenticationConfiguration.class))
+                .withPropertyValues("password.hashing.min-strength=5", "password.hashing.max-strength=5");
+
+        runner.run(context -> {
+            AuthenticationProvider provider = context.getBean(AuthenticationProvider.class);
+            UserDetailsCache cache = context.getBean(UserDetailsCache.class);
+            assertEquals(weakHash, cache.loadUserByUsername("user@example.com").getPassword());
+
+            // Act
+            provider.authenticate(new UsernamePasswordAuthenticationToken("user@example.com", "password"));
+
+            // Assert
+            verify(userRepository).save(user);
+            assertTrue(user.getPassword().startsWith("$2a$05$"), user.getPassword());
+            // Without the eviction the cache would still hand out the old hash
+            assertEquals(user.getPassword(), cache.loadUserByUsername("user@example.com").getPassword());
+        });
+    }
+}
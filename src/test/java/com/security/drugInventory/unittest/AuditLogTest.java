@@ -0,0 +1,184 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.audit.AuditEventType;
+import com.security.drugInventory.audit.AuditLog;
+import com.security.drugInventory.audit.AuditRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditLogTest {
+
+    private static final long T0 = 1_790_000_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRead_ReturnsTheTimeRangeAcrossRolledSegments() throws Exception {
+        // Arrange: a minute per append, and a roll every 10 minutes or 4 KB
+        AtomicLong now = new AtomicLong(T0);
+        try (AuditLog log = new AuditLog(tempDir, 4096, Duration.ofMinutes(10), () -> now.getAndAdd(60_000))) {
+            // Act
+            long last = 0;
+            for (int i = 0; i < 100; i++) {
+                last = log.append(AuditEventType.STOCK_DISPENSED, "nurse@example.com", i, -i);
+            }
+            log.awaitDurable(last);
+        }
+
+        // Assert
+        assertEquals(10, segmentCount());
+        List<AuditRecord> range = read(Instant.ofEpochMilli(T0 + 25 * 60_000), Instant.ofEpochMilli(T0 + 40 * 60_000));
+        assertEquals(15, range.size());
+        assertEquals(25, range.get(0).subjectId());
+        assertEquals(-39, range.get(14).amount());
+        assertEquals("nurse@example.com", range.get(0).actor());
+        assertEquals(100, read(Instant.EPOCH, Instant.ofEpochMilli(Long.MAX_VALUE)).size());
+    }
+
+    @Test
+    void testAppend_RollsBySizeAndTrimsSealedSegments() throws Exception {
+        // Arrange
+        AuditLog log = new AuditLog(tempDir, 4096, Duration.ofHours(1), () -> T0);
+
+        // Act
+        long last = 0;
+        for (int i = 0; i < 500; i++) {
+            last = log.append(AuditEventType.LOGIN_SUCCEEDED, "user" + i + "@example.com", i, 0);
+        }
+        log.awaitDurable(last);
+        log.close();
+
+        // Assert: every segment is cut back to whole records, and the records come back in order
+        long bytes = 0;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            for (Path file : files.toList()) {
+                assertTrue(Files.size(file) <= 4096);
+                bytes += Files.size(file);
+            }
+        }
+        assertTrue(segmentCount() > 1);
+        assertTrue(bytes < segmentCount() * 4096L);
+        List<AuditRecord> records = read(Instant.EPOCH, Instant.ofEpochMilli(Long.MAX_VALUE));
+        assertEquals(500, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i, records.get(i).subjectId());
+        }
+    }
+
+    @Test
+    void testReopen_CutsATornTailAndKeepsAppending() throws Exception {
+        // Arrange
+        AuditLog first = new AuditLog(tempDir, 1 << 20, Duration.ofHours(1), () -> T0);
+        first.awaitDurable(first.append(AuditEventType.REGISTERED, "a@example.com", 1, 0));
+        first.awaitDurable(first.append(AuditEventType.REGISTERED, "b@example.com", 2, 0));
+        first.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        // A record cut short by a crash
+        Files.write(segment, new byte[]{60, 0, 0, 0, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // Act
+        try (AuditLog second = new AuditLog(tempDir, 1 << 20, Duration.ofHours(1), () -> T0 + 1000)) {
+            second.awaitDurable(second.append(AuditEventType.LOGIN_FAILED, "c@example.com", 0, 0));
+        }
+
+        // Assert
+        List<AuditRecord> records = read(Instant.EPOCH, Instant.ofEpochMilli(Long.MAX_VALUE));
+        assertEquals(List.of(AuditEventType.REGISTERED, AuditEventType.REGISTERED, AuditEventType.LOGIN_FAILED),
+                records.stream().map(AuditRecord::type).toList());
+        assertEquals(Instant.ofEpochMilli(T0 + 1000), records.get(2).timestamp());
+    }
+
+    @Test
+    void testAppend_ConcurrentWritersShareForces() throws Exception {
+        // Arrange
+        int threads = 8;
+        int perThread = 2_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        // Act
+        try (AuditLog log = new AuditLog(tempDir, 64 * 1024, Duration.ofHours(1));
+             ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                long thread = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        log.awaitDurable(log.append(AuditEventType.STOCK_ADJUSTED, "t" + thread, thread, i));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+
+        // Assert: nothing lost, and each writer's records in its own order
+        List<AuditRecord> records = read(Instant.EPOCH, Instant.ofEpochMilli(Long.MAX_VALUE));
+        assertEquals(threads * perThread, records.size());
+        long[] next = new long[threads];
+        for (AuditRecord record : records) {
+            assertEquals(next[(int) record.subjectId()]++, record.amount());
+        }
+    }
+
+    @Test
+    void testRead_SurvivesTheSegmentBeingCutBackMidRead() {
+        // Arrange: 16 records of 256 bytes (34 fixed plus the actor) fill exactly one page, so closing cuts the
+        // segment back to a page boundary
+        String actor = "a".repeat(222);
+        AuditLog log = new AuditLog(tempDir, 64 * 1024, Duration.ofHours(1), () -> T0);
+        long last = 0;
+        for (int i = 0; i < 16; i++) {
+            last = log.append(AuditEventType.STOCK_ADJUSTED, actor, i, i);
+        }
+        log.awaitDurable(last);
+
+        // Act: the reader has mapped the segment before it is cut back
+        List<AuditRecord> records = new ArrayList<>();
+        try (Stream<AuditRecord> stream = log.read(Instant.EPOCH, Instant.ofEpochMilli(Long.MAX_VALUE))) {
+            var iterator = stream.iterator();
+            assertTrue(iterator.hasNext());
+            log.close();
+            iterator.forEachRemaining(records::add);
+        }
+
+        // Assert
+        assertEquals(16, records.size());
+        assertEquals(15, records.get(15).subjectId());
+    }
+
+    private List<AuditRecord> read(Instant from, Instant to) {
+        try (Stream<AuditRecord> records = AuditLog.read(tempDir, from, to)) {
+            return records.toList();
+        }
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.count();
+        }
+    }
+}
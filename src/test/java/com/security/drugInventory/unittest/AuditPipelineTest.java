@@ -0,0 +1,180 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.audit.AuditEventType;
+import com.security.drugInventory.audit.AuditPipeline;
+import com.security.drugInventory.audit.AuditRecord;
+import com.security.drugInventory.audit.AuditSink;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditPipelineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testPublish_DeliversEverythingInBatchesAndDrainsOnClose() throws Exception {
+        // Arrange: a slow sink, so events pile up and go out in batches
+        List<AuditRecord> written = new CopyOnWriteArrayList<>();
+        AtomicInteger largestBatch = new AtomicInteger();
+        AuditPipeline pipeline = pipeline(records -> {
+            largestBatch.accumulateAndGet(records.size(), Math::max);
+            written.addAll(records);
+            sleep(1);
+        }, 1024, AuditPipeline.OverflowPolicy.BLOCK, Duration.ofSeconds(5));
+        int threads = 4;
+        int perThread = 2_000;
+        List<Future<?>> results = new ArrayList<>();
+
+        // Act
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                long thread = t;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        assertTrue(pipeline.publish(AuditEventType.TOKEN_INVALID, "10.0.0." + thread, thread, i));
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+        pipeline.close();
+
+        // Assert: nothing lost, each publisher's events in its own order
+        assertEquals(threads * perThread, written.size());
+        long[] next = new long[threads];
+        for (AuditRecord record : written) {
+            assertEquals(next[(int) record.subjectId()]++, record.amount());
+        }
+        assertTrue(largestBatch.get() > 1);
+        assertEquals(threads * perThread, meterRegistry.get("audit.pipeline.written").counter().count());
+        assertFalse(pipeline.publish(AuditEventType.TOKEN_INVALID, "late", 0, 0));
+        assertEquals(1.0, dropped("closed"));
+    }
+
+    @Test
+    void testPublish_DropsWhenFull() throws Exception {
+        // Arrange: the sink is stuck on the first event
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stuck = new CountDownLatch(1);
+        AuditPipeline pipeline = pipeline(records -> {
+            stuck.countDown();
+            await(release);
+        }, 8, AuditPipeline.OverflowPolicy.DROP, Duration.ZERO);
+        pipeline.publish(AuditEventType.LOGIN_FAILED, "first", 0, 0);
+        assertTrue(stuck.await(5, TimeUnit.SECONDS));
+
+        // Act
+        int accepted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (pipeline.publish(AuditEventType.LOGIN_FAILED, "a@example.com", 0, i)) {
+                accepted++;
+            }
+        }
+        release.countDown();
+        pipeline.close();
+
+        // Assert
+        assertEquals(8, accepted);
+        assertEquals(12.0, dropped("full"));
+        assertEquals(9.0, meterRegistry.get("audit.pipeline.written").counter().count());
+    }
+
+    @Test
+    void testPublish_SamplesFromHalfFull() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stuck = new CountDownLatch(1);
+        AuditPipeline pipeline = pipeline(records -> {
+            stuck.countDown();
+            await(release);
+        }, 64, AuditPipeline.OverflowPolicy.SAMPLE, Duration.ZERO);
+        pipeline.publish(AuditEventType.LOGIN_FAILED, "first", 0, 0);
+        assertTrue(stuck.await(5, TimeUnit.SECONDS));
+
+        // Act: 32 fill the buffer to half, then 1 in 10 of the next 100
+        int accepted = 0;
+        for (int i = 0; i < 132; i++) {
+            if (pipeline.publish(AuditEventType.LOGIN_FAILED, "a@example.com", 0, i)) {
+                accepted++;
+            }
+        }
+        release.countDown();
+        pipeline.close();
+
+        // Assert
+        assertEquals(32 + 10, accepted);
+        assertEquals(90.0, dropped("sampled"));
+    }
+
+    @Test
+    void testPublish_BlocksUntilThereIsRoom() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stuck = new CountDownLatch(1);
+        AuditPipeline pipeline = pipeline(records -> {
+            stuck.countDown();
+            await(release);
+        }, 2, AuditPipeline.OverflowPolicy.BLOCK, Duration.ofSeconds(5));
+        pipeline.publish(AuditEventType.LOGIN_FAILED, "first", 0, 0);
+        assertTrue(stuck.await(5, TimeUnit.SECONDS));
+        pipeline.publish(AuditEventType.LOGIN_FAILED, "second", 0, 0);
+        pipeline.publish(AuditEventType.LOGIN_FAILED, "third", 0, 0);
+
+        // Act: the buffer is full, so this waits until the sink gets going again
+        Thread releaser = Thread.ofPlatform().start(() -> {
+            sleep(100);
+            release.countDown();
+        });
+        long start = System.nanoTime();
+        boolean accepted = pipeline.publish(AuditEventType.LOGIN_FAILED, "fourth", 0, 0);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        releaser.join();
+        pipeline.close();
+
+        // Assert
+        assertTrue(accepted);
+        assertTrue(waitedMillis >= 50, "waited " + waitedMillis + " ms");
+        assertEquals(4.0, meterRegistry.get("audit.pipeline.written").counter().count());
+    }
+
+    private AuditPipeline pipeline(AuditSink sink, int capacity, AuditPipeline.OverflowPolicy overflow,
+                                   Duration blockTimeout) {
+        return new AuditPipeline(sink, capacity, 64, overflow, 10, blockTimeout, Duration.ofSeconds(10),
+                meterRegistry);
+    }
+
+    private double dropped(String reason) {
+        return meterRegistry.get("audit.pipeline.dropped").tag("reason", reason).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
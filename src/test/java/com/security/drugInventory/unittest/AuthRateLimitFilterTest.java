@@ -0,0 +1,189 @@
+package com.security.drugInventory.unittest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.drugInventory.config.AuthRateLimitFilter;
+import com.security.drugInventory.config.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthRateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AuthRateLimitFilter(true,
+                new RateLimiter(10, Duration.ofMinutes(1), Duration.ofMinutes(10), 100),
+                new RateLimiter(2, Duration.ofMinutes(1), Duration.ofMinutes(10), 100),
+                new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    void testDoFilter_LimitsPerEmailAndReplaysBody() throws Exception {
+        // Arrange
+        String body = "{\"email\":\"User@Example.com\",\"password\":\"password\"}";
+
+        // Act
+        MockFilterChain first = new MockFilterChain();
+        filter.doFilter(authenticate("10.0.0.1", body), new MockHttpServletResponse(), first);
+        filter.doFilter(authenticate("10.0.0.2", body), new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse limited = new MockHttpServletResponse();
+        filter.doFilter(authenticate("10.0.0.3", body.replace("User@", "user@")), limited, new MockFilterChain());
+
+        // Assert
+        assertEquals(body, new String(first.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals(429, limited.getStatus());
+        assertEquals("30", limited.getHeader("Retry-After"));
+        assertTrue(limited.getContentAsString().contains("Too Many Requests"));
+        assertEquals(1.0, meterRegistry.get("auth.ratelimit.rejected").tag("key", "email").counter().count());
+    }
+
+    @Test
+    void testDoFilter_LimitsPerIpAndSkipsOtherPaths() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        for (int i = 0; i < 10; i++) {
+            filter.doFilter(authenticate("10.0.0.1", "{}"), new MockHttpServletResponse(), new MockFilterChain());
+        }
+        MockHttpServletRequest demo = new MockHttpServletRequest("GET", "/api/v1/demo");
+        demo.setRemoteAddr("10.0.0.1");
+        MockFilterChain demoChain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(authenticate("10.0.0.1", "{}"), response, new MockFilterChain());
+        filter.doFilter(demo, new MockHttpServletResponse(), demoChain);
+
+        // Assert
+        assertEquals(429, response.getStatus());
+        assertNotNull(demoChain.getRequest());
+        assertEquals(1.0, meterRegistry.get("auth.ratelimit.rejected").tag("key", "ip").counter().count());
+    }
+
+    @Test
+    void testDoFilter_RefreshIsNotThrottledByLoginTraffic() throws Exception {
+        // Arrange
+        for (int i = 0; i < 11; i++) {
+            filter.doFilter(authenticate("10.0.0.1", "{}"), new MockHttpServletResponse(), new MockFilterChain());
+        }
+        MockHttpServletRequest refresh = new MockHttpServletRequest("POST", "/api/v1/auth/refresh");
+        refresh.setRemoteAddr("10.0.0.1");
+        MockFilterChain refreshChain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(refresh, new MockHttpServletResponse(), refreshChain);
+
+        // Assert
+        assertNotNull(refreshChain.getRequest());
+        assertEquals(1.0, meterRegistry.get("auth.ratelimit.rejected").tag("key", "ip").counter().count());
+    }
+
+    @Test
+    void testDoFilter_KeysOnForwardedClientBehindTrustedProxy() throws Exception {
+        // Arrange
+        AuthRateLimitFilter proxied = new AuthRateLimitFilter(true,
+                new RateLimiter(1, Duration.ofMinutes(1), Duration.ofMinutes(10), 100),
+                new RateLimiter(10, Duration.ofMinutes(1), Duration.ofMinutes(10), 100),
+                List.of("10.0.0.0/8"), new ObjectMapper(), new SimpleMeterRegistry());
+        MockHttpServletResponse firstClient = new MockHttpServletResponse();
+        MockHttpServletResponse secondClient = new MockHttpServletResponse();
+        MockHttpServletResponse firstClientAgain = new MockHttpServletResponse();
+        MockHttpServletResponse untrusted = new MockHttpServletResponse();
+
+        // Act: a forged left-most hop does not give the first client a new bucket
+        proxied.doFilter(forwarded("10.0.0.1", "203.0.113.7"), firstClient, new MockFilterChain());
+        proxied.doFilter(forwarded("10.0.0.1", "203.0.113.8"), secondClient, new MockFilterChain());
+        proxied.doFilter(forwarded("10.0.0.2", "198.51.100.1, 203.0.113.7, 10.0.0.9"), firstClientAgain,
+                new MockFilterChain());
+        proxied.doFilter(forwarded("192.0.2.1", "203.0.113.9"), new MockHttpServletResponse(), new MockFilterChain());
+        proxied.doFilter(forwarded("192.0.2.1", "203.0.113.10"), untrusted, new MockFilterChain());
+
+        // Assert
+        assertEquals(200, firstClient.getStatus());
+        assertEquals(200, secondClient.getStatus());
+        assertEquals(429, firstClientAgain.getStatus());
+        assertEquals(429, untrusted.getStatus());
+    }
+
+    @Test
+    void testDoFilter_OversizedBodyGetsErrorBody() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(authenticate("10.0.0.1", "x".repeat(8 * 1024 + 1)), response, chain);
+
+        // Assert
+        assertEquals(413, response.getStatus());
+        assertEquals("application/json", response.getContentType());
+        assertTrue(response.getContentAsString().contains("Payload Too Large"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void testDoFilter_ReplaysBodyToReadListener() throws Exception {
+        // Arrange
+        String body = "{\"email\":\"user@example.com\",\"password\":\"password\"}";
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(authenticate("10.0.0.1", body), new MockHttpServletResponse(), chain);
+        ServletInputStream in = chain.getRequest().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allDataRead = new AtomicBoolean();
+
+        // Act
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[16];
+                while (in.isReady() && !in.isFinished()) {
+                    read.write(buffer, 0, in.read(buffer));
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allDataRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t);
+            }
+        });
+
+        // Assert
+        assertTrue(allDataRead.get());
+        assertEquals(body, read.toString(StandardCharsets.UTF_8));
+    }
+
+    private static MockHttpServletRequest forwarded(String proxyAddr, String forwardedFor) {
+        MockHttpServletRequest request = authenticate(proxyAddr, "{}");
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        return request;
+    }
+
+    private static MockHttpServletRequest authenticate(String remoteAddr, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/authenticate");
+        request.setRemoteAddr(remoteAddr);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
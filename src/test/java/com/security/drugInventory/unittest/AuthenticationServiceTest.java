@@ -1,29 +1,52 @@
 package com.security.drugInventory.unittest;
 
 
+import com.security.drugInventory.audit.AuditEventType;
+import com.security.drugInventory.audit.AuditPipeline;
 import com.security.drugInventory.auth.AuthenticationRequest;
 import com.security.drugInventory.auth.AuthenticationResponse;
 import com.security.drugInventory.auth.AuthenticationService;
+import com.security.drugInventory.auth.RefreshRequest;
 import com.security.drugInventory.auth.RegisterRequest;
+import com.security.drugInventory.config.AuthenticationMetrics;
+import com.security.drugInventory.config.CachedUser;
 import com.security.drugInventory.config.JWTService;
+import com.security.drugInventory.config.RevokedTokenStore;
+import com.security.drugInventory.config.TokenNotBeforeRegistry;
+import com.security.drugInventory.config.VerifiedClaims;
+import com.security.drugInventory.config.UserDetailsCache;
+import com.security.drugInventory.token.InvalidRefreshTokenException;
+import com.security.drugInventory.token.RefreshTokenService;
 import com.security.drugInventory.user.Role;
 import com.security.drugInventory.user.User;
 import com.security.drugInventory.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.SQLException;
+import java.time.Instant;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,9 +61,27 @@ public class AuthenticationServiceTest {
     @Mock
     private JWTService jwtService;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private RevokedTokenStore revokedTokenStore;
+
+    @Mock
+    private AuditPipeline auditPipeline;
+
+    @Mock
+    private TokenNotBeforeRegistry tokenNotBeforeRegistry;
+
+    @Spy
+    private AuthenticationMetrics authenticationMetrics = new AuthenticationMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private AuthenticationService authenticationService;
-    @Mock(lenient = true)
+    @Mock
     private AuthenticationManager authenticationManager;
 
     @Test
@@ -54,9 +95,6 @@ public class AuthenticationServiceTest {
                 .role("USER")
                 .build();
 
-        // Mock user repository to return an empty Optional (user does not exist)
-        when(userRepository.findByEmail(request.getEmail())).thenReturn(Optional.empty());
-
         // Mock password encoder to return encoded password
         when(passwordEncoder.encode(request.getPassword())).thenReturn("encodedPassword");
 
@@ -68,7 +106,7 @@ public class AuthenticationServiceTest {
                 .password("encodedPassword")
                 .role(Role.USER)
                 .build();
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
         // Mock JWT service to return a mock token
         when(jwtService.generateToken(user)).thenReturn("mockToken");
@@ -91,7 +129,10 @@ public class AuthenticationServiceTest {
                 .role("USER")
                 .build();
 
-        when(userRepository.findByEmail(request.getEmail())).thenReturn(Optional.of(new User()));
+        // Mock the unique constraint on email rejecting the insert
+        when(passwordEncoder.encode(request.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(violation("PUBLIC.UK_USER_EMAIL_INDEX_5"));
 
         // Act & Assert
         Exception exception = assertThrows(RuntimeException.class, () -> {
@@ -99,6 +140,32 @@ public class AuthenticationServiceTest {
         });
         assertEquals("User already exists with email: " + request.getEmail(), exception.getMessage());
     }
+
+    @Test
+    void testRegister_OtherConstraintViolationIsRethrown() {
+        // Arrange
+        RegisterRequest request = RegisterRequest.builder()
+                .email("user@example.com")
+                .password("password")
+                .firstname("John")
+                .lastname("Doe")
+                .role("USER")
+                .build();
+        DataIntegrityViolationException notNull = violation("NN_USER_FIRSTNAME");
+        when(passwordEncoder.encode(request.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(notNull);
+
+        // Act & Assert
+        Exception exception = assertThrows(DataIntegrityViolationException.class, () -> {
+            authenticationService.register(request);
+        });
+        assertSame(notNull, exception);
+    }
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("constraint violated", new SQLException(), constraintName));
+    }
     @Test
     void testAuthenticate_Success() {
         // Arrange
@@ -107,18 +174,25 @@ public class AuthenticationServiceTest {
                 .password("password")
                 .build();
 
-        User user = User.builder()
+        CachedUser user = CachedUser.of(User.builder()
+                .id(7L)
                 .email(request.getEmail())
                 .password("encodedPassword")
                 .role(Role.USER)
-                .build();
+                .build());
 
-        when(userRepository.findByEmail(request.getEmail())).thenReturn(Optional.of(user));
+        // Mock the authentication manager returning the cached user as principal
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
         when(jwtService.generateToken(user)).thenReturn("mockToken");
 
         // Act
         AuthenticationResponse response = authenticationService.authenticate(request);
 
+        // Assert that the user is not fetched a second time
+        verify(userRepository, never()).findByEmail(any());
+        verify(refreshTokenService).issue(7L);
+
         // Assert
         assertNotNull(response);
         assertEquals("mockToken", response.getToken());
@@ -148,11 +222,65 @@ public class AuthenticationServiceTest {
         });
 
         assertEquals("Invalid credentials", thrown.getMessage());
+        verify(auditPipeline).publish(AuditEventType.LOGIN_FAILED, request.getEmail(), 0, 0);
     }
 
 
 
 
+    @Test
+    void testRefresh_RotatesWithoutPasswordHashing() {
+        // Arrange
+        User user = User.builder()
+                .email("user@example.com")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build();
+        when(refreshTokenService.rotate("oldRefreshToken"))
+                .thenReturn(new RefreshTokenService.Rotation(user, "newRefreshToken"));
+        when(jwtService.generateToken(user)).thenReturn("mockToken");
+
+        // Act
+        AuthenticationResponse response = authenticationService.refresh(new RefreshRequest("oldRefreshToken"));
+
+        // Assert
+        assertEquals("mockToken", response.getToken());
+        assertEquals("newRefreshToken", response.getRefreshToken());
+        verify(authenticationManager, never()).authenticate(any());
+        verify(passwordEncoder, never()).matches(any(), any());
+    }
+
+    @Test
+    void testRefresh_InvalidTokenRejected() {
+        // Arrange
+        when(refreshTokenService.rotate("reusedRefreshToken"))
+                .thenThrow(new InvalidRefreshTokenException("Refresh token reuse detected"));
+
+        // Act & Assert
+        assertThrows(InvalidRefreshTokenException.class,
+                () -> authenticationService.refresh(new RefreshRequest("reusedRefreshToken")));
+        verify(jwtService, never()).generateToken(any(User.class));
+    }
+
+    @Test
+    void testLogout_RevokesAccessAndRefreshTokens() {
+        // Arrange
+        UUID jti = UUID.randomUUID();
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        when(jwtService.validateToken("accessToken")).thenReturn(VerifiedClaims.builder()
+                .jti(jti)
+                .subject("user@example.com")
+                .expiresAt(expiresAt)
+                .build());
+
+        // Act
+        authenticationService.logout("accessToken", "refreshToken");
+
+        // Assert
+        verify(revokedTokenStore).revoke(jti, expiresAt);
+        verify(refreshTokenService).revoke("refreshToken");
+    }
+
     @Test
     void testGenerateToken() {
         // Arrange
@@ -184,7 +312,6 @@ public class AuthenticationServiceTest {
                 .build();
 
         // Mock the user repository behavior
-        when(userRepository.findByEmail(userRequest.getEmail())).thenReturn(Optional.empty());
         when(passwordEncoder.encode(userRequest.getPassword())).thenReturn("encodedPassword");
 
         User user = User.builder()
@@ -194,7 +321,7 @@ public class AuthenticationServiceTest {
                 .password("encodedPassword")
                 .role(Role.USER)
                 .build();
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
         when(jwtService.generateToken(user)).thenReturn("mockToken");
 
         // Act
@@ -213,7 +340,6 @@ public class AuthenticationServiceTest {
                 .role("DOCTOR")
                 .build();
 
-        when(userRepository.findByEmail(doctorRequest.getEmail())).thenReturn(Optional.empty());
         when(passwordEncoder.encode(doctorRequest.getPassword())).thenReturn("encodedPassword");
         User doctor = User.builder()
                 .firstname(doctorRequest.getFirstname())
@@ -222,7 +348,7 @@ public class AuthenticationServiceTest {
                 .password("encodedPassword")
                 .role(Role.DOCTOR)
                 .build();
-        when(userRepository.save(any(User.class))).thenReturn(doctor);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(doctor);
         when(jwtService.generateToken(doctor)).thenReturn("mockToken");
 
         // Act
@@ -233,17 +359,18 @@ public class AuthenticationServiceTest {
         assertEquals("mockToken", doctorResponse.getToken());
 
         // Similarly, add for ADMIN role if needed
-        User admin = User.builder()
+        CachedUser admin = CachedUser.of(User.builder()
                 .email("admin@example.com")
                 .password("encodedPassword")
                 .role(Role.ADMIN)
-                .build();
+                .build());
 
-        when(userRepository.findByEmail(admin.getEmail())).thenReturn(Optional.of(admin));
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
         when(jwtService.generateToken(admin)).thenReturn("mockToken");
 
         AuthenticationRequest request = AuthenticationRequest.builder()
-                .email(admin.getEmail())
+                .email(admin.getUsername())
                 .password("password")
                 .build();
 
@@ -254,4 +381,31 @@ public class AuthenticationServiceTest {
         assertNotNull(response);
         assertEquals("mockToken", res.getToken());
     }
+
+    @Test
+    void testRevokeAllTokens_SetsNotBeforeAndEndsRefreshTokens() {
+        // Arrange
+        User user = User.builder().email("user@example.com").role(Role.USER).build();
+        when(userRepository.findByEmail("User@Example.com")).thenReturn(Optional.of(user));
+        Instant before = Instant.now();
+
+        // Act
+        authenticationService.revokeAllTokens("User@Example.com");
+
+        // Assert
+        verify(tokenNotBeforeRegistry).revokeTokensIssuedBefore(eq("user@example.com"),
+                argThat(instant -> !instant.isBefore(before)));
+        verify(refreshTokenService).revokeAll(user);
+        verify(userDetailsCache).evict("user@example.com");
+    }
+
+    @Test
+    void testRevokeAllTokens_UnknownUser() {
+        // Arrange
+        when(userRepository.findByEmail("gone@example.com")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResponseStatusException.class, () -> authenticationService.revokeAllTokens("gone@example.com"));
+        verify(tokenNotBeforeRegistry, never()).revokeTokensIssuedBefore(any(), any());
+    }
 }
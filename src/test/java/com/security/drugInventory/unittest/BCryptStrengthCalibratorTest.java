@@ -0,0 +1,38 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.config.BCryptStrengthCalibrator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BCryptStrengthCalibratorTest {
+
+    @Test
+    void testCalibrate_StaysWithinBounds() {
+        // Act
+        int strength = BCryptStrengthCalibrator.calibrate(Duration.ofMillis(20), 4, 8);
+
+        // Assert
+        assertTrue(strength >= 4 && strength <= 8, "strength " + strength);
+    }
+
+    @Test
+    void testCalibrate_TargetBelowMinimumCostKeepsMinimum() {
+        // Act
+        int strength = BCryptStrengthCalibrator.calibrate(Duration.ZERO, 5, 8);
+
+        // Assert
+        assertEquals(5, strength);
+    }
+
+    @Test
+    void testCalibrate_GenerousTargetIsCappedAtMaximum() {
+        // Act: a strength-4 hash takes about a millisecond, so doubling up to 6 stays far below an hour
+        int strength = BCryptStrengthCalibrator.calibrate(Duration.ofHours(1), 4, 6);
+
+        // Assert
+        assertEquals(6, strength);
+    }
+}
@@ -0,0 +1,95 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.config.BoundedPasswordEncoder;
+import com.security.drugInventory.config.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedPasswordEncoderTest {
+
+    @Test
+    void testEncode_DelegatesToPool() {
+        // Arrange
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                new BlockingEncoder(new CountDownLatch(0)), 1, 1, new SimpleMeterRegistry())) {
+
+            // Act & Assert
+            assertEquals("encoded:password", encoder.encode("password"));
+            assertTrue(encoder.matches("password", "encoded:password"));
+        }
+    }
+
+    @Test
+    void testEncode_SaturatedPoolFailsFast() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                new BlockingEncoder(release), 1, 1, meterRegistry)) {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+            awaitQueueDepth(meterRegistry, 0);
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+            awaitQueueDepth(meterRegistry, 1);
+
+            // Act & Assert
+            assertThrows(PasswordHashingUnavailableException.class, () -> encoder.encode("third"));
+            assertEquals(1.0, meterRegistry.get("password.hash.rejected").counter().count());
+
+            release.countDown();
+            assertEquals("encoded:first", running.get(5, TimeUnit.SECONDS));
+            assertEquals("encoded:second", queued.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testEncodeAll_KeepsOrderWhenPoolIsSaturated() {
+        // Arrange
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                new BlockingEncoder(new CountDownLatch(0)), 2, 1, new SimpleMeterRegistry())) {
+            List<String> passwords = List.of("a", "b", "c", "d", "e", "f", "g", "h");
+
+            // Act
+            List<String> encoded = encoder.encodeAll(passwords);
+
+            // Assert
+            assertEquals(passwords.stream().map(p -> "encoded:" + p).toList(), encoded);
+        }
+    }
+
+    private static void awaitQueueDepth(SimpleMeterRegistry meterRegistry, int depth) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            boolean active = meterRegistry.get("password.hash.active").gauge().value() == 1.0;
+            if (active && meterRegistry.get("password.hash.queue.depth").gauge().value() == depth) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Queue never reached depth " + depth);
+    }
+
+    private record BlockingEncoder(CountDownLatch release) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "encoded:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.security.drugInventory.unittest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.security.drugInventory.audit.AuditTrail;
+import com.security.drugInventory.inventory.ExpiryIndex;
+import com.security.drugInventory.inventory.ExpiryService;
+import com.security.drugInventory.inventory.ReservationEngine;
+import com.security.drugInventory.inventory.StockIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpiryIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+
+    @Test
+    void testExpiringBetween_FollowsStockChanges() {
+        // Arrange
+        StockIndex index = new StockIndex();
+        ExpiryIndex expiryIndex = new ExpiryIndex(index);
+        index.registerDrug(new StockIndex.DrugInfo(1, "AMX-500", "Amoxicillin 500mg", "capsule"));
+        index.registerBatch(batch(1, TODAY.plusDays(20)), 5);
+        index.registerBatch(batch(2, TODAY.plusDays(3)), 5);
+        index.registerBatch(batch(3, TODAY.plusDays(40)), 5);
+        index.registerBatch(batch(4, TODAY.plusDays(3)), 0);
+
+        // Act: batch 1 runs out, batch 4 is stocked, batch 2 is only partly used
+        index.adjust(1, -5);
+        index.adjust(4, 2);
+        index.adjust(2, -4);
+
+        // Assert
+        assertEquals(List.of(2L, 4L), ids(expiryIndex.expiringBetween(TODAY, TODAY.plusDays(30))));
+        assertEquals(List.of(2L, 4L, 3L), ids(expiryIndex.expiringBetween(TODAY, TODAY.plusDays(40))));
+        assertEquals(List.of(), ids(expiryIndex.expiringBetween(TODAY.plusDays(4), TODAY.plusDays(39))));
+        assertEquals(3, expiryIndex.size());
+    }
+
+    @Test
+    void testConstruction_IndexesBatchesAlreadyLoaded() {
+        // Arrange
+        StockIndex index = new StockIndex();
+        index.registerDrug(new StockIndex.DrugInfo(1, "AMX-500", "Amoxicillin 500mg", "capsule"));
+        index.registerBatch(batch(1, TODAY.minusDays(1)), 5);
+        index.registerBatch(batch(2, TODAY.minusDays(9)), 0);
+
+        // Act
+        ExpiryIndex expiryIndex = new ExpiryIndex(index);
+
+        // Assert
+        assertEquals(List.of(1L), ids(expiryIndex.expiredBefore(TODAY)));
+        assertEquals(List.of(), ids(expiryIndex.expiredBefore(TODAY.minusDays(1))));
+    }
+
+    @Test
+    void testExpiringBetween_FarDatesDoNotOverflowTheKey() {
+        // Arrange
+        StockIndex index = new StockIndex();
+        ExpiryIndex expiryIndex = new ExpiryIndex(index);
+        index.registerDrug(new StockIndex.DrugInfo(1, "AMX-500", "Amoxicillin 500mg", "capsule"));
+        index.registerBatch(batch(1, TODAY.plusDays(3)), 5);
+        index.registerBatch(batch(2, ExpiryIndex.MAX_EXPIRY), 5);
+
+        // Act & Assert
+        assertEquals(List.of(1L, 2L), ids(expiryIndex.expiringBetween(TODAY, TODAY.plusDays(10_000_000))));
+        assertEquals(List.of(1L, 2L), ids(expiryIndex.expiredBefore(LocalDate.MAX)));
+        assertEquals(List.of(), ids(expiryIndex.expiringBetween(LocalDate.MIN, TODAY)));
+        assertThrows(IllegalArgumentException.class,
+                () -> index.registerBatch(batch(3, ExpiryIndex.MAX_EXPIRY.plusDays(1)), 5));
+    }
+
+    @Test
+    void testWriteOffExpired_LeavesReservedStockForItsReservation() throws Exception {
+        // Arrange
+        StockIndex index = new StockIndex();
+        ExpiryIndex expiryIndex = new ExpiryIndex(index);
+        ReservationEngine engine = new ReservationEngine(index, (Path) null, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+        ExpiryService service = new ExpiryService(index, expiryIndex, engine,
+                new AuditTrail("", DataSize.ofMegabytes(1), Duration.ofHours(1)),
+                new ObjectMapper().registerModule(new JavaTimeModule()), new SimpleMeterRegistry());
+        index.registerDrug(new StockIndex.DrugInfo(1, "AMX-500", "Amoxicillin 500mg", "capsule"));
+        index.registerBatch(batch(1, TODAY.minusDays(2)), 10);
+        index.registerBatch(batch(2, TODAY.minusDays(1)), 6);
+        index.registerBatch(batch(3, TODAY.plusDays(1)), 8);
+        ReservationEngine.Reservation reservation = engine.reserve(2, 4, null);
+
+        // Act
+        long writtenOff = service.writeOffExpiredBefore(TODAY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = service.exportExpiring(TODAY, 7, out);
+
+        // Assert
+        assertEquals(10 + 2, writtenOff);
+        assertEquals(0, index.quantity(1));
+        assertEquals(0, index.quantity(2));
+        assertEquals(List.of(2L), ids(expiryIndex.expiredBefore(TODAY)));
+        engine.release(reservation.id());
+        assertEquals(4, service.writeOffExpiredBefore(TODAY));
+        assertEquals(List.of(), ids(expiryIndex.expiredBefore(TODAY)));
+        assertEquals(1, exported);
+        String line = out.toString(StandardCharsets.UTF_8);
+        assertTrue(line.endsWith("\n"));
+        assertTrue(line.contains("\"batchId\":3") && line.contains("\"drugCode\":\"AMX-500\""));
+    }
+
+    private static StockIndex.BatchInfo batch(long id, LocalDate expiresOn) {
+        return new StockIndex.BatchInfo(id, 1, "B-" + id, "Ward A", expiresOn);
+    }
+
+    private static List<Long> ids(Iterable<Long> batchIds) {
+        List<Long> ids = new ArrayList<>();
+        batchIds.forEach(ids::add);
+        return ids;
+    }
+}
@@ -0,0 +1,80 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.config.GroupCommit;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroupCommitTest {
+
+    @Test
+    void testAwaitDurable_OneBatchCoversEverythingAppendedBeforeIt() {
+        // Arrange
+        AtomicLong pending = new AtomicLong();
+        AtomicInteger batches = new AtomicInteger();
+        GroupCommit groupCommit = new GroupCommit("Test log", 10);
+        long last;
+        groupCommit.lock();
+        try {
+            groupCommit.start("test-log-writer", () -> pending.getAndSet(0) == 0 ? null : batches::incrementAndGet);
+            for (int i = 0; i < 5; i++) {
+                pending.incrementAndGet();
+                groupCommit.next();
+            }
+            last = groupCommit.appended();
+        } finally {
+            groupCommit.unlock();
+        }
+
+        // Act
+        groupCommit.awaitDurable(last);
+        groupCommit.close();
+
+        // Assert
+        assertEquals(15, last);
+        assertEquals(15, groupCommit.durable());
+        assertEquals(1, batches.get());
+        assertThrows(IllegalStateException.class, () -> {
+            groupCommit.lock();
+            try {
+                groupCommit.next();
+            } finally {
+                groupCommit.unlock();
+            }
+        });
+    }
+
+    @Test
+    void testAwaitDurable_FailsOnceAWriteHasFailed() {
+        // Arrange
+        IOException failure = new IOException("disk full");
+        GroupCommit groupCommit = new GroupCommit("Test log", 0);
+        AtomicLong pending = new AtomicLong();
+        groupCommit.start("test-log-writer", () -> pending.getAndSet(0) == 0 ? null : () -> {
+            throw failure;
+        });
+        long sequence;
+        groupCommit.lock();
+        try {
+            pending.incrementAndGet();
+            sequence = groupCommit.next();
+        } finally {
+            groupCommit.unlock();
+        }
+
+        // Act
+        UncheckedIOException thrown = assertThrows(UncheckedIOException.class,
+                () -> groupCommit.awaitDurable(sequence));
+
+        // Assert
+        assertSame(failure, thrown.getCause());
+        assertEquals(0, groupCommit.durable());
+        assertThrows(UncheckedIOException.class, groupCommit::checkOpen);
+        groupCommit.close();
+    }
+}
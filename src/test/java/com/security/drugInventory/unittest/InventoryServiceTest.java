@@ -0,0 +1,145 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.audit.AuditTrail;
+import com.security.drugInventory.inventory.BatchStockResponse;
+import com.security.drugInventory.inventory.DrugRequest;
+import com.security.drugInventory.inventory.DrugStockResponse;
+import com.security.drugInventory.inventory.ExpiryIndex;
+import com.security.drugInventory.inventory.InsufficientStockException;
+import com.security.drugInventory.inventory.InventoryService;
+import com.security.drugInventory.inventory.ReservationEngine;
+import com.security.drugInventory.inventory.ReservationRequest;
+import com.security.drugInventory.inventory.ReservationResponse;
+import com.security.drugInventory.inventory.StockBatchRequest;
+import com.security.drugInventory.inventory.StockIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({InventoryService.class, StockIndex.class, ReservationEngine.class, AuditTrail.class,
+        InventoryServiceTest.Config.class})
+public class InventoryServiceTest {
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testDispense_IsServedFromTheIndexAndWrittenBackOnFlush() {
+        // Arrange
+        long batchId = receiveBatch(100);
+
+        // Act
+        inventoryService.dispense(batchId, 30);
+        inventoryService.dispense(batchId, 20);
+
+        // Assert: not written yet, the database still holds the received quantity
+        assertEquals(100L, storedQuantity(batchId));
+        assertEquals(1, inventoryService.flush());
+        assertEquals(50L, storedQuantity(batchId));
+        assertEquals(0, inventoryService.flush());
+        // The write-back records how much of the reservation log it covers
+        assertEquals(2L, jdbcTemplate.queryForObject(
+                "SELECT log_sequence FROM inventory_checkpoint WHERE id = 1", Long.class));
+    }
+
+    @Test
+    void testReserve_HoldsStockUntilCommitted() {
+        // Arrange
+        long batchId = receiveBatch(10);
+
+        // Act
+        ReservationResponse reservation = inventoryService.reserve(batchId,
+                ReservationRequest.builder().quantity(4).build());
+
+        // Assert
+        assertThrows(InsufficientStockException.class, () -> inventoryService.dispense(batchId, 7));
+        BatchStockResponse committed = inventoryService.commitReservation(reservation.getReservationId());
+        assertEquals(6, committed.getQuantity());
+        assertEquals(0, committed.getReserved());
+        assertEquals(1, inventoryService.flush());
+        assertEquals(6L, storedQuantity(batchId));
+    }
+
+    @Test
+    void testDispense_RejectsMoreThanIsInStock() {
+        // Arrange
+        long batchId = receiveBatch(5);
+
+        // Act & Assert
+        assertThrows(InsufficientStockException.class, () -> inventoryService.dispense(batchId, 6));
+        BatchStockResponse batch = inventoryService.batchStock(batchId);
+        assertEquals(5, batch.getQuantity());
+        assertEquals(5, inventoryService.drugStock(batch.getDrugId()).getAvailable());
+    }
+
+    @Test
+    void testReceiveBatch_RejectsExpiryBeyondTheIndexRange() {
+        // Arrange
+        DrugStockResponse drug = inventoryService.createDrug(DrugRequest.builder()
+                .code("AMX-500")
+                .name("Amoxicillin 500mg")
+                .unit("capsule")
+                .build());
+        StockBatchRequest request = StockBatchRequest.builder()
+                .drugId(drug.getDrugId())
+                .batchNumber("B-1")
+                .location("Ward A")
+                .expiresOn(ExpiryIndex.MAX_EXPIRY.plusDays(1))
+                .quantity(5)
+                .build();
+
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> inventoryService.receiveBatch(request));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals(0, inventoryService.drugStock(drug.getDrugId()).getBatches().size());
+    }
+
+    private long receiveBatch(long quantity) {
+        DrugStockResponse drug = inventoryService.createDrug(DrugRequest.builder()
+                .code("AMX-500")
+                .name("Amoxicillin 500mg")
+                .unit("capsule")
+                .build());
+        return inventoryService.receiveBatch(StockBatchRequest.builder()
+                .drugId(drug.getDrugId())
+                .batchNumber("B-1")
+                .location("Ward A")
+                .expiresOn(LocalDate.now().plusMonths(6))
+                .quantity(quantity)
+                .build()).getBatchId();
+    }
+
+    private Long storedQuantity(long batchId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM stock_batch WHERE id = ?", Long.class, batchId);
+    }
+}
@@ -0,0 +1,185 @@
+package com.security.drugInventory.unittest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.drugInventory.audit.AuditEventType;
+import com.security.drugInventory.audit.AuditPipeline;
+import com.security.drugInventory.audit.AuditRecord;
+import com.security.drugInventory.config.AuthenticationMetrics;
+import com.security.drugInventory.config.JWTAuthenticationFilter;
+import com.security.drugInventory.config.JWTService;
+import com.security.drugInventory.config.RevokedTokenStore;
+import com.security.drugInventory.config.TokenNotBeforeRegistry;
+import com.security.drugInventory.config.VerifiedTokenCache;
+import com.security.drugInventory.user.Role;
+import com.security.drugInventory.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JWTAuthenticationFilterTest {
+
+    private static final String SECRET_KEY = "b2e7c6e1f29f13e0d8a6b5c3e07a8b9c6a3f9c8b27f93eac5641d3c72a9a6b0c";
+
+    private JWTService jwtService;
+    private JWTAuthenticationFilter filter;
+    private SimpleMeterRegistry meterRegistry;
+    private AuditPipeline auditPipeline;
+    private TokenNotBeforeRegistry tokenNotBeforeRegistry;
+    private final List<AuditRecord> audited = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JWTService(SECRET_KEY, VerifiedTokenCache.disabled());
+        meterRegistry = new SimpleMeterRegistry();
+        auditPipeline = new AuditPipeline(audited::addAll, 64, 16, AuditPipeline.OverflowPolicy.DROP, 1,
+                Duration.ZERO, Duration.ofSeconds(5), meterRegistry);
+        tokenNotBeforeRegistry = new TokenNotBeforeRegistry();
+        filter = new JWTAuthenticationFilter(jwtService,
+                username -> {
+                    throw new UsernameNotFoundException(username);
+                },
+                tokenNotBeforeRegistry, RevokedTokenStore.inMemory(),
+                new AuthenticationMetrics(meterRegistry), auditPipeline, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        auditPipeline.close();
+    }
+
+    @Test
+    void testDoFilter_MalformedTokenGetsPrebuiltBody() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/demo");
+        request.addHeader("Authorization", "Bearer not.a.token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertEquals("{\"error\":\"Unauthorized\",\"message\":\"Invalid JWT token\"}", response.getContentAsString());
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+        assertNull(chain.getRequest());
+        assertEquals(1.0, meterRegistry.get("jwt.filter.outcome").tag("outcome", "malformed").counter().count());
+    }
+
+    @Test
+    void testDoFilter_UnknownUserGetsUserNotFoundBody() throws Exception {
+        // Arrange
+        String token = jwtService.generateToken(User.builder().email("gone@example.com").role(Role.USER).build());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/demo");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, new MockFilterChain());
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertEquals("{\"error\":\"Unauthorized\",\"message\":\"User not found\"}", response.getContentAsString());
+        assertEquals("application/json", response.getContentType());
+        assertEquals(1.0, meterRegistry.get("jwt.filter.outcome").tag("outcome", "unknown_user").counter().count());
+        auditPipeline.close();
+        assertEquals(1, audited.size());
+        assertEquals(AuditEventType.TOKEN_UNKNOWN_USER, audited.get(0).type());
+        assertEquals("gone@example.com", audited.get(0).actor());
+    }
+
+    @Test
+    void testDoFilter_ClaimsTrustedBuildsPrincipalWithoutLoadingUser() throws Exception {
+        // Arrange: the user service would reject this user, the claims alone must be enough
+        ReflectionTestUtils.setField(filter, "claimsTrusted", true);
+        String token = jwtService.generateToken(User.builder().email("doc@example.com").role(Role.DOCTOR).build());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/doctor/stock/drugs/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals("doc@example.com", authentication.getName());
+        assertEquals(List.of("DOCTOR"), authentication.getAuthorities().stream().map(Object::toString).toList());
+        assertEquals(1.0, meterRegistry.get("jwt.filter.outcome").tag("outcome", "valid").counter().count());
+    }
+
+    @Test
+    void testDoFilter_TokenIssuedBeforeNotBeforeIsRevoked() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(filter, "claimsTrusted", true);
+        String token = jwtService.generateToken(User.builder().email("doc@example.com").role(Role.DOCTOR).build());
+        tokenNotBeforeRegistry.revokeTokensIssuedBefore("doc@example.com", Instant.now().plusSeconds(1));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/doctor/stock/drugs/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1.0, meterRegistry.get("jwt.filter.outcome").tag("outcome", "revoked").counter().count());
+    }
+
+    @Test
+    void testDoFilter_TokenIssuedEarlierInTheSameSecondIsRevoked() throws Exception {
+        // Arrange: the revoke lands half a second after the token was issued, within the same second of iat
+        ReflectionTestUtils.setField(filter, "claimsTrusted", true);
+        String token = jwtService.generateToken(User.builder().email("doc@example.com").role(Role.DOCTOR).build());
+        Instant issuedAt = jwtService.validateToken(token).getIssuedAt();
+        tokenNotBeforeRegistry.revokeTokensIssuedBefore("doc@example.com", issuedAt.plusMillis(500));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/doctor/stock/drugs/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void testDoFilter_NotBeforeOfAnotherUserDoesNotApply() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(filter, "claimsTrusted", true);
+        String token = jwtService.generateToken(User.builder().email("doc@example.com").role(Role.DOCTOR).build());
+        tokenNotBeforeRegistry.revokeTokensIssuedBefore("other@example.com", Instant.now().plusSeconds(1));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/doctor/stock/drugs/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+    }
+}
@@ -0,0 +1,43 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.audit.AuditEventType;
+import com.security.drugInventory.audit.AuditRecord;
+import com.security.drugInventory.audit.JdbcAuditSink;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+public class JdbcAuditSinkTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testWrite_InsertsTheBatchIntoAuditEvent() {
+        // Arrange
+        Instant at = Instant.parse("2026-10-17T08:30:00Z");
+        JdbcAuditSink sink = new JdbcAuditSink(jdbcTemplate);
+
+        // Act
+        sink.write(List.of(
+                new AuditRecord(at, AuditEventType.LOGIN_SUCCEEDED, "a@example.com", 7, 0),
+                new AuditRecord(at.plusSeconds(1), AuditEventType.TOKEN_EXPIRED, "b@example.com", 0, 0)));
+
+        // Assert
+        assertEquals(List.of("LOGIN_SUCCEEDED", "TOKEN_EXPIRED"), jdbcTemplate.queryForList(
+                "SELECT type FROM audit_event ORDER BY occurred_at", String.class));
+        assertEquals(7L, jdbcTemplate.queryForObject(
+                "SELECT subject_id FROM audit_event WHERE actor = 'a@example.com'", Long.class));
+    }
+}
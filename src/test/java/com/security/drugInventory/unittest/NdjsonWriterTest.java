@@ -0,0 +1,73 @@
+package com.security.drugInventory.unittest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.drugInventory.config.ErrorResponse;
+import com.security.drugInventory.config.NdjsonWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NdjsonWriterTest {
+
+    private final NdjsonWriter<ErrorResponse> writer = new NdjsonWriter<>(new ObjectMapper(), ErrorResponse.class);
+
+    @Test
+    void testWrite_OneObjectPerLine() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Stream<ErrorResponse> rows = Stream.of(
+                ErrorResponse.builder().error("first").message("a").build(),
+                ErrorResponse.builder().error("second").message("b").build());
+
+        // Act
+        long written = writer.write(rows, out);
+
+        // Assert
+        assertEquals(2, written);
+        assertEquals("{\"error\":\"first\",\"message\":\"a\"}\n{\"error\":\"second\",\"message\":\"b\"}\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testWrite_FlushesButLeavesTheStreamOpen() throws IOException {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        BufferedOutputStream buffered = new BufferedOutputStream(out);
+
+        // Act
+        writer.write(Stream.of(ErrorResponse.builder().error("only").message("c").build()), buffered);
+
+        // Assert
+        assertFalse(closed.get());
+        assertEquals("{\"error\":\"only\",\"message\":\"c\"}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testWrite_UnwrapsReadFailure() {
+        // Arrange
+        IOException failure = new IOException("segment unreadable");
+        Stream<ErrorResponse> rows = Stream.generate(() -> {
+            throw new UncheckedIOException(failure);
+        });
+
+        // Act
+        IOException thrown = assertThrows(IOException.class, () -> writer.write(rows, new ByteArrayOutputStream()));
+
+        // Assert
+        assertSame(failure, thrown);
+    }
+}
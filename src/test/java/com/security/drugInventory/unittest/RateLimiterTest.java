@@ -0,0 +1,64 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.config.RateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    @Test
+    void testTryAcquire_AllowsBurstThenRefillsOverTime() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(0);
+        RateLimiter limiter = new RateLimiter(5, Duration.ofMinutes(1), Duration.ofMinutes(10), 100, clock::get);
+
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        }
+        long wait = limiter.tryAcquire("10.0.0.1");
+        assertEquals(TimeUnit.SECONDS.toNanos(12), wait);
+        assertEquals(0, limiter.tryAcquire("10.0.0.2"));
+
+        clock.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+    }
+
+    @Test
+    void testTryAcquire_ConcurrentCallersNeverExceedCapacity() throws InterruptedException {
+        // Arrange
+        RateLimiter limiter = new RateLimiter(100, Duration.ofHours(1), Duration.ofMinutes(10), 100);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1_000; i++) {
+                    if (limiter.tryAcquire("user@example.com") == 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(100, allowed.get());
+    }
+}
@@ -0,0 +1,134 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.token.InvalidRefreshTokenException;
+import com.security.drugInventory.token.RefreshToken;
+import com.security.drugInventory.token.RefreshTokenRepository;
+import com.security.drugInventory.token.RefreshTokenService;
+import com.security.drugInventory.user.Role;
+import com.security.drugInventory.user.User;
+import com.security.drugInventory.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(RefreshTokenService.class)
+public class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.saveAndFlush(User.builder()
+                .firstname("Jane")
+                .lastname("Doe")
+                .email("jane.doe@example.com")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build());
+    }
+
+    @Test
+    void testRotate_IssuesSuccessorAndConsumesPresentedToken() {
+        // Arrange
+        String issued = refreshTokenService.issue(user);
+
+        // Act
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(issued);
+
+        // Assert
+        assertEquals("jane.doe@example.com", rotation.user().getUsername());
+        assertNotEquals(issued, rotation.refreshToken());
+        assertNotNull(refreshTokenService.rotate(rotation.refreshToken()).refreshToken());
+    }
+
+    @Test
+    void testRotate_ReuseRevokesWholeFamily() {
+        // Arrange
+        String issued = refreshTokenService.issue(user);
+        String successor = refreshTokenService.rotate(issued).refreshToken();
+
+        // Act
+        InvalidRefreshTokenException reuse = assertThrows(InvalidRefreshTokenException.class,
+                () -> refreshTokenService.rotate(issued));
+
+        // Assert
+        assertEquals("Refresh token reuse detected", reuse.getMessage());
+        // The legitimate successor is revoked too, forcing a fresh login
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(successor));
+        assertTrue(refreshTokenRepository.findAll().stream().allMatch(RefreshToken::isRevoked));
+    }
+
+    @Test
+    void testRotate_RejectsUnknownToken() {
+        // Act & Assert
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown"));
+    }
+
+    @Test
+    void testRevokeAll_EndsEveryLoginOfTheUser() {
+        // Arrange
+        String first = refreshTokenService.issue(user);
+        String second = refreshTokenService.issue(user);
+
+        // Act
+        refreshTokenService.revokeAll(user);
+
+        // Assert
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(first));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(second));
+    }
+
+    @Test
+    void testIssue_ByUserIdReferencesTheUserRow() {
+        // Act
+        String issued = refreshTokenService.issue(user.getId());
+
+        // Assert
+        assertEquals("jane.doe@example.com", refreshTokenService.rotate(issued).user().getUsername());
+    }
+
+    @Test
+    void testPurge_DeletesExpiredAndRevokedButKeepsUsedTokens() {
+        // Arrange
+        String expired = refreshTokenService.issue(user);
+        RefreshToken expiredRow = refreshTokenRepository.findAll().get(0);
+        expiredRow.setExpiresAt(Instant.now().minusSeconds(1));
+        refreshTokenRepository.saveAndFlush(expiredRow);
+        refreshTokenService.revoke(refreshTokenService.issue(user));
+        String used = refreshTokenService.issue(user);
+        String successor = refreshTokenService.rotate(used).refreshToken();
+
+        // Act
+        int purged = refreshTokenService.purge();
+
+        // Assert
+        assertEquals(2, purged);
+        assertEquals(2, refreshTokenRepository.count());
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(expired));
+        // The consumed token is still known, so presenting it again is caught as reuse
+        InvalidRefreshTokenException reuse = assertThrows(InvalidRefreshTokenException.class,
+                () -> refreshTokenService.rotate(used));
+        assertEquals("Refresh token reuse detected", reuse.getMessage());
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(successor));
+    }
+}
@@ -0,0 +1,231 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.inventory.ReservationEngine;
+import com.security.drugInventory.inventory.ReservationLog;
+import com.security.drugInventory.inventory.StockIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReservationEngineTest {
+
+    private static final long BATCH = 10;
+    private static final long STOCK = 20_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReserveCommitRelease_NeverOversellUnderContention() throws Exception {
+        // Arrange
+        StockIndex index = index(STOCK);
+        ReservationEngine engine = new ReservationEngine(index, (Path) null, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+        int threads = 16;
+        AtomicLong committed = new AtomicLong();
+        AtomicLong maxReserved = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        // Act: reserve until stock runs out, committing two thirds and releasing the rest
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    int misses = 0;
+                    while (misses < 100) {
+                        ReservationEngine.Reservation r = engine.reserve(BATCH, 1 + random.nextInt(5), null);
+                        if (r == null) {
+                            misses++;
+                            continue;
+                        }
+                        long available = index.quantity(BATCH);
+                        long reserved = index.reserved(BATCH);
+                        assertTrue(available >= 0 && reserved >= 0);
+                        maxReserved.accumulateAndGet(reserved, Math::max);
+                        if (random.nextInt(3) < 2) {
+                            assertNotNull(engine.commit(r.id()));
+                            committed.addAndGet(r.quantity());
+                        } else {
+                            assertTrue(engine.release(r.id()));
+                        }
+                        // Settled reservations cannot be settled again
+                        assertNull(engine.commit(r.id()));
+                        assertFalse(engine.release(r.id()));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+        }
+
+        // Assert
+        for (Future<?> result : results) {
+            result.get();
+        }
+        assertEquals(STOCK, committed.get() + index.quantity(BATCH));
+        assertEquals(0, index.reserved(BATCH));
+        assertEquals(0, engine.openReservations());
+        assertTrue(maxReserved.get() <= STOCK);
+    }
+
+    @Test
+    void testReleaseExpired_ReturnsStockOfLapsedReservations() throws InterruptedException {
+        // Arrange
+        StockIndex index = index(100);
+        ReservationEngine engine = new ReservationEngine(index, (Path) null, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+        ReservationEngine.Reservation lapsing = engine.reserve(BATCH, 30, Duration.ofMillis(1));
+        ReservationEngine.Reservation held = engine.reserve(BATCH, 20, null);
+        Thread.sleep(10);
+
+        // Act
+        int released = engine.releaseExpired();
+
+        // Assert
+        assertEquals(1, released);
+        assertEquals(80, index.quantity(BATCH));
+        assertEquals(20, index.reserved(BATCH));
+        assertNull(engine.commit(lapsing.id()));
+        assertNotNull(engine.commit(held.id()));
+    }
+
+    @Test
+    void testRecover_ReplaysMovementsAfterTheCheckpointAndReopensReservations() {
+        // Arrange: a run that dispensed and committed without writing anything back, then stopped
+        Path log = tempDir.resolve("reservations.log");
+        ReservationEngine first = new ReservationEngine(index(100), log, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+        first.recover(0);
+        first.dispense(BATCH, 7);
+        first.commit(first.reserve(BATCH, 10, null).id());
+        ReservationEngine.Reservation open = first.reserve(BATCH, 5, null);
+        first.release(first.reserve(BATCH, 3, null).id());
+        first.adjust(BATCH, 20);
+        first.close();
+
+        // Act: the database still holds the quantity from before the run
+        StockIndex index = index(100);
+        ReservationEngine second = new ReservationEngine(index, log, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+        second.recover(0);
+
+        // Assert
+        assertEquals(100 - 7 - 10 + 20 - 5, index.quantity(BATCH));
+        assertEquals(5, index.reserved(BATCH));
+        assertEquals(1, second.openReservations());
+        assertNotNull(second.commit(open.id()));
+        second.close();
+    }
+
+    @Test
+    void testRecover_KeepsSequencesAboveTheCheckpointAfterCompaction() {
+        // Arrange: a run that wrote its movements back, recorded the checkpoint and compacted the log
+        Path log = tempDir.resolve("reservations.log");
+        ReservationEngine first = new ReservationEngine(index(100), log, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+        first.recover(0);
+        first.dispense(BATCH, 7);
+        first.release(first.reserve(BATCH, 3, null).id());
+        first.adjust(BATCH, 20);
+        long checkpoint = first.drainForWriteBack((batchId, quantity) -> { });
+        first.compactLog(checkpoint);
+        first.close();
+        ReservationEngine second = new ReservationEngine(index(113), log, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+        second.recover(checkpoint);
+        ReservationEngine.Reservation reservation = second.reserve(BATCH, 2, null);
+        second.dispense(BATCH, 4);
+        second.close();
+
+        // Act: nothing from the second run was written back
+        StockIndex index = index(113);
+        ReservationEngine third = new ReservationEngine(index, log, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+        third.recover(checkpoint);
+
+        // Assert
+        assertTrue(checkpoint > 0);
+        assertTrue(reservation.id() > checkpoint);
+        assertEquals(113 - 4 - 2, index.quantity(BATCH));
+        assertEquals(2, index.reserved(BATCH));
+        assertEquals(1, third.openReservations());
+        third.close();
+    }
+
+    @Test
+    void testCompactLogIfGrown_ReplayStaysCorrectWhenCompactedWhileRunning() {
+        // Arrange: settled and open reservations on both sides of a write-back
+        Path log = tempDir.resolve("reservations.log");
+        ReservationEngine first = new ReservationEngine(index(100), log, Duration.ofMinutes(5), 4,
+                new SimpleMeterRegistry());
+        first.recover(0);
+        first.commit(first.reserve(BATCH, 10, null).id());
+        ReservationEngine.Reservation openBefore = first.reserve(BATCH, 5, null);
+        ReservationEngine.Reservation releasedAfter = first.reserve(BATCH, 3, null);
+        first.dispense(BATCH, 7);
+        long[] writtenBack = new long[1];
+        long checkpoint = first.drainForWriteBack((batchId, quantity) -> writtenBack[0] = quantity);
+        ReservationEngine.Reservation openAfter = first.reserve(BATCH, 2, null);
+        first.release(releasedAfter.id());
+        first.adjust(BATCH, 20);
+        int recordsBefore = ReservationLog.read(log).size();
+
+        // Act: the write-back has stored checkpoint, so the log is compacted while the engine keeps running
+        first.compactLogIfGrown(checkpoint);
+        first.dispense(BATCH, 1);
+        first.close();
+        StockIndex index = index(writtenBack[0]);
+        ReservationEngine second = new ReservationEngine(index, log, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+        second.recover(checkpoint);
+
+        // Assert
+        assertTrue(ReservationLog.read(log).size() < recordsBefore);
+        assertEquals(100 - 10 - 7 + 20 - 1 - 5 - 2, index.quantity(BATCH));
+        assertEquals(5 + 2, index.reserved(BATCH));
+        assertEquals(2, second.openReservations());
+        assertNotNull(second.commit(openBefore.id()));
+        assertNotNull(second.commit(openAfter.id()));
+        assertNull(second.commit(releasedAfter.id()));
+        second.close();
+    }
+
+    @Test
+    void testRecover_ContinuesAfterCheckpointWhenLogIsGone() {
+        // Arrange
+        Path log = tempDir.resolve("reservations.log");
+        ReservationEngine engine = new ReservationEngine(index(100), log, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+
+        // Act
+        engine.recover(42);
+        ReservationEngine.Reservation reservation = engine.reserve(BATCH, 1, null);
+        engine.close();
+
+        // Assert
+        assertEquals(43, reservation.id());
+    }
+
+    private static StockIndex index(long quantity) {
+        StockIndex index = new StockIndex();
+        index.registerDrug(new StockIndex.DrugInfo(1, "AMX-500", "Amoxicillin 500mg", "capsule"));
+        index.registerBatch(new StockIndex.BatchInfo(BATCH, 1, "B-1", "Ward A", LocalDate.of(2027, 1, 31)), quantity);
+        return index;
+    }
+}
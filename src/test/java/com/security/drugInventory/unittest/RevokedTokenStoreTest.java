@@ -0,0 +1,99 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.config.RevokedTokenStore;
+import com.security.drugInventory.config.VerifiedClaims;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RevokedTokenStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testIsRevoked_FindsRevokedIdsAmongMany() {
+        // Arrange
+        RevokedTokenStore store = RevokedTokenStore.inMemory();
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        List<UUID> revoked = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            UUID jti = UUID.randomUUID();
+            revoked.add(jti);
+            store.revoke(jti, expiresAt);
+        }
+
+        // Act & Assert
+        assertEquals(1_000, store.size());
+        for (UUID jti : revoked) {
+            assertTrue(store.isRevoked(claims(jti)));
+        }
+        assertFalse(store.isRevoked(claims(UUID.randomUUID())));
+        assertFalse(store.isRevoked(claims(null)));
+    }
+
+    @Test
+    void testPrune_DropsIdsPastTheirExpiry() throws InterruptedException {
+        // Arrange
+        RevokedTokenStore store = RevokedTokenStore.inMemory();
+        UUID shortLived = UUID.randomUUID();
+        UUID longLived = UUID.randomUUID();
+        store.revoke(shortLived, Instant.now().plusSeconds(1));
+        store.revoke(longLived, Instant.now().plusSeconds(900));
+        store.revoke(UUID.randomUUID(), Instant.now().minusSeconds(1));
+        Thread.sleep(2_100);
+
+        // Act
+        store.prune();
+
+        // Assert
+        assertEquals(1, store.size());
+        assertFalse(store.isRevoked(claims(shortLived)));
+        assertTrue(store.isRevoked(claims(longLived)));
+    }
+
+    @Test
+    void testSnapshot_ReloadsAfterRestart() {
+        // Arrange
+        Path snapshot = tempDir.resolve("revoked-tokens.bin");
+        UUID jti = UUID.randomUUID();
+        RevokedTokenStore store = new RevokedTokenStore(snapshot);
+        store.revoke(jti, Instant.now().plusSeconds(900));
+        store.close();
+
+        // Act
+        RevokedTokenStore restarted = new RevokedTokenStore(snapshot);
+
+        // Assert
+        assertEquals(1, restarted.size());
+        assertTrue(restarted.isRevoked(claims(jti)));
+    }
+
+    @Test
+    void testRevoke_StaysInEffectWhenSnapshotCannotBeWritten() throws Exception {
+        // Arrange: the snapshot's parent is a file, so every write fails
+        Path notADirectory = Files.createFile(tempDir.resolve("not-a-directory"));
+        RevokedTokenStore store = new RevokedTokenStore(notADirectory.resolve("revoked-tokens.bin"));
+        UUID jti = UUID.randomUUID();
+
+        // Act
+        assertDoesNotThrow(() -> store.revoke(jti, Instant.now().plusSeconds(900)));
+        assertDoesNotThrow(store::flush);
+
+        // Assert
+        assertEquals(1, store.size());
+        assertTrue(store.isRevoked(claims(jti)));
+    }
+
+    private static VerifiedClaims claims(UUID jti) {
+        return VerifiedClaims.builder().jti(jti).subject("user@example.com").build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.config.ScrapeAuthenticationProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScrapeAuthenticationProviderTest {
+
+    @Test
+    void testAuthenticate_AcceptsConfiguredCredential() {
+        // Arrange
+        ScrapeAuthenticationProvider provider = new ScrapeAuthenticationProvider("prometheus", "s3cret");
+
+        // Act
+        Authentication result = provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("prometheus", "s3cret"));
+
+        // Assert
+        assertTrue(result.isAuthenticated());
+        assertEquals(ScrapeAuthenticationProvider.SCRAPE_AUTHORITY,
+                result.getAuthorities().stream().map(GrantedAuthority::getAuthority).findFirst().orElseThrow());
+    }
+
+    @Test
+    void testAuthenticate_RejectsWrongPasswordAndUnsetPassword() {
+        // Arrange
+        ScrapeAuthenticationProvider provider = new ScrapeAuthenticationProvider("prometheus", "s3cret");
+        ScrapeAuthenticationProvider unconfigured = new ScrapeAuthenticationProvider("prometheus", "");
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("prometheus", "guess")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("admin", "s3cret")));
+        assertThrows(BadCredentialsException.class, () -> unconfigured.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("prometheus", "")));
+    }
+}
@@ -0,0 +1,90 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.inventory.StockIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockIndexTest {
+
+    @Test
+    void testTryReserve_NeverOversellsUnderContention() throws Exception {
+        // Arrange
+        StockIndex index = new StockIndex();
+        index.registerDrug(new StockIndex.DrugInfo(1, "AMX-500", "Amoxicillin 500mg", "capsule"));
+        index.registerBatch(batch(10, 1), 10_000);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // Act
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int dispensed = 0;
+                    while (index.tryReserve(10, 3) != StockIndex.INSUFFICIENT) {
+                        index.commitReserved(10, 3);
+                        dispensed += 3;
+                    }
+                    return dispensed;
+                }));
+            }
+            start.countDown();
+        }
+
+        // Assert
+        int dispensed = 0;
+        for (Future<Integer> result : results) {
+            dispensed += result.get();
+        }
+        assertEquals(9_999, dispensed);
+        assertEquals(1, index.quantity(10));
+        assertEquals(0, index.reserved(10));
+        assertEquals(StockIndex.UNKNOWN, index.tryReserve(99, 1));
+    }
+
+    @Test
+    void testDrainDirty_CoalescesChangesPerBatch() {
+        // Arrange
+        StockIndex index = new StockIndex();
+        index.registerDrug(new StockIndex.DrugInfo(1, "AMX-500", "Amoxicillin 500mg", "capsule"));
+        for (long id = 1; id <= 2_000; id++) {
+            index.registerBatch(batch(id, 1), 100);
+        }
+        for (int i = 0; i < 10; i++) {
+            index.adjust(7, -1);
+            index.adjust(1_500, -2);
+        }
+        index.adjust(2_000, 50);
+        // Reserving does not change what is on the shelf, so it leaves nothing to write back
+        index.tryReserve(3, 40);
+        index.tryReserve(7, 5);
+
+        // Act
+        Map<Long, Long> drained = new HashMap<>();
+        int count = index.drainDirty(drained::put);
+
+        // Assert
+        assertEquals(3, count);
+        assertEquals(Map.of(7L, 90L, 1_500L, 80L, 2_000L, 150L), drained);
+        assertEquals(85, index.quantity(7));
+        assertEquals(0, index.dirtyCount());
+        assertEquals(0, index.drainDirty((batchId, quantity) -> fail("Nothing changed since the last drain")));
+        assertEquals(2_000 * 100 - 10 - 20 + 50 - 40 - 5, index.totalQuantity(1));
+    }
+
+    private static StockIndex.BatchInfo batch(long id, long drugId) {
+        return new StockIndex.BatchInfo(id, drugId, "B-" + id, "Ward A", LocalDate.of(2027, 1, 31));
+    }
+}
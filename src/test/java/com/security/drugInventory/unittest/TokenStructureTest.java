@@ -0,0 +1,67 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.config.JWTService;
+import com.security.drugInventory.config.SigningKeyring;
+import com.security.drugInventory.config.TokenStructure;
+import com.security.drugInventory.config.VerifiedTokenCache;
+import com.security.drugInventory.user.Role;
+import com.security.drugInventory.user.User;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenStructureTest {
+
+    private static final String SECRET_KEY = "b2e7c6e1f29f13e0d8a6b5c3e07a8b9c6a3f9c8b27f93eac5641d3c72a9a6b0c";
+
+    private static final String PAYLOAD = encode("{\"sub\":\"user@example.com\",\"roles\":[\"USER\"]}");
+    private static final String SIGNATURE = "c2lnbmF0dXJlLXNpZ25hdHVyZS1zaWduYXR1cmUtc2ln";
+
+    private final User user = User.builder()
+            .email("user@example.com")
+            .role(Role.USER)
+            .build();
+
+    @Test
+    void testIsWellFormed_AcceptsIssuedTokens() {
+        // Arrange
+        String hs256 = new JWTService(SECRET_KEY, VerifiedTokenCache.disabled()).generateToken(user);
+        String es256 = new JWTService(SECRET_KEY, SignatureAlgorithm.ES256, new SigningKeyring(Duration.ofHours(1)),
+                VerifiedTokenCache.disabled(), Duration.ofMinutes(15)).generateToken(user);
+        String header = "Bearer " + hs256;
+
+        // Act & Assert
+        assertTrue(TokenStructure.isWellFormed(hs256));
+        assertTrue(TokenStructure.isWellFormed(es256));
+        assertTrue(TokenStructure.isWellFormed(header, 7, header.length()));
+        assertTrue(TokenStructure.isWellFormed(encode("{\"typ\":\"JWT\",\"alg\":\"HS256\"}") + "." + PAYLOAD + "." + SIGNATURE));
+    }
+
+    @Test
+    void testIsWellFormed_RejectsJunk() {
+        // Arrange
+        String hs256Header = encode("{\"alg\":\"HS256\"}");
+
+        // Act & Assert
+        assertFalse(TokenStructure.isWellFormed(null));
+        assertFalse(TokenStructure.isWellFormed("not.a.token"));
+        assertFalse(TokenStructure.isWellFormed(hs256Header + "." + PAYLOAD));
+        assertFalse(TokenStructure.isWellFormed(hs256Header + "." + PAYLOAD + "." + SIGNATURE + ".extra"));
+        assertFalse(TokenStructure.isWellFormed(hs256Header + "." + PAYLOAD + "."));
+        assertFalse(TokenStructure.isWellFormed(hs256Header + ".." + SIGNATURE));
+        assertFalse(TokenStructure.isWellFormed(hs256Header + "." + PAYLOAD + "." + SIGNATURE + "="));
+        assertFalse(TokenStructure.isWellFormed(hs256Header + "." + PAYLOAD + "." + SIGNATURE.repeat(100)));
+        assertFalse(TokenStructure.isWellFormed(encode("{\"alg\":\"none\"}") + "." + PAYLOAD + "." + SIGNATURE));
+        assertFalse(TokenStructure.isWellFormed(encode("{\"alg\":\"HS512\"}") + "." + PAYLOAD + "." + SIGNATURE));
+        assertFalse(TokenStructure.isWellFormed(encode("{\"typ\":\"JWT\"}") + "." + PAYLOAD + "." + SIGNATURE));
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,115 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.config.CachedUser;
+import com.security.drugInventory.config.UserDetailsCache;
+import com.security.drugInventory.user.Role;
+import com.security.drugInventory.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserDetailsCacheTest {
+
+    @Test
+    void testLoadUserByUsername_ConcurrentMissesLoadOnce() throws Exception {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        UserDetailsCache cache = new UserDetailsCache(username -> {
+            loads.incrementAndGet();
+            sleep(50);
+            return User.builder().email(username).role(Role.USER).build();
+        }, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<UserDetails>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.loadUserByUsername("user@example.com");
+            }));
+        }
+        start.countDown();
+        for (Future<UserDetails> result : results) {
+            assertEquals("user@example.com", result.get().getUsername());
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testEvict_ReloadsUser() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        UserDetailsCache cache = new UserDetailsCache(username -> {
+            loads.incrementAndGet();
+            return User.builder().email(username).role(Role.USER).build();
+        }, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+        // Act
+        cache.loadUserByUsername("user@example.com");
+        cache.loadUserByUsername("user@example.com");
+        cache.evict("user@example.com");
+        cache.loadUserByUsername("user@example.com");
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testLoadUserByUsername_UnknownUserNotCached() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        UserDetailsCache cache = new UserDetailsCache(username -> {
+            loads.incrementAndGet();
+            throw new UsernameNotFoundException("User not found");
+        }, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+        // Act & Assert
+        assertThrows(UsernameNotFoundException.class, () -> cache.loadUserByUsername("ghost@example.com"));
+        assertThrows(UsernameNotFoundException.class, () -> cache.loadUserByUsername("ghost@example.com"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testLoadUserByUsername_CachesImmutableCopyInsteadOfEntity() {
+        // Arrange
+        User entity = User.builder().id(3L).email("user@example.com").password("hash").role(Role.DOCTOR).build();
+        UserDetailsCache cache = new UserDetailsCache(username -> entity, 100, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+
+        // Act
+        UserDetails cached = cache.loadUserByUsername("user@example.com");
+        entity.setPassword("changed");
+
+        // Assert
+        CachedUser user = assertInstanceOf(CachedUser.class, cached);
+        assertEquals(3L, user.getId());
+        assertEquals("hash", user.getPassword());
+        assertEquals("DOCTOR", user.getAuthorities().get(0).getAuthority());
+        assertSame(cached, cache.loadUserByUsername("user@example.com"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.security.drugInventory.unittest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.drugInventory.admin.UserExportService;
+import com.security.drugInventory.user.Role;
+import com.security.drugInventory.user.User;
+import com.security.drugInventory.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({UserExportService.class, UserExportServiceTest.Config.class})
+public class UserExportServiceTest {
+
+    private static final int USERS = 250;
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testExport_WritesOneJsonLinePerUserInIdOrderWithoutPasswords() throws Exception {
+        // Arrange
+        for (int i = 0; i < USERS; i++) {
+            userRepository.save(User.builder()
+                    .firstname("Export")
+                    .lastname("User")
+                    .email("user-" + i + "@example.com")
+                    .password("encodedPassword")
+                    .role(i == 0 ? Role.ADMIN : Role.USER)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = userExportService.export(out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(USERS, exported);
+        assertEquals(USERS, lines.length);
+        long previousId = Long.MIN_VALUE;
+        for (String line : lines) {
+            JsonNode row = objectMapper.readTree(line);
+            assertFalse(row.has("password"), line);
+            assertTrue(row.get("id").asLong() > previousId, line);
+            previousId = row.get("id").asLong();
+        }
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("user-0@example.com", first.get("email").asText());
+        assertEquals("ADMIN", first.get("role").asText());
+        // Streamed entities are detached as they are written, so nothing piles up in the persistence context
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
@@ -0,0 +1,142 @@
+package com.security.drugInventory.unittest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.drugInventory.admin.UserImportResponse;
+import com.security.drugInventory.admin.UserImportRow;
+import com.security.drugInventory.admin.UserImportService;
+import com.security.drugInventory.audit.AuditTrail;
+import com.security.drugInventory.config.BoundedPasswordEncoder;
+import com.security.drugInventory.user.Role;
+import com.security.drugInventory.user.User;
+import com.security.drugInventory.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Chunks commit in their own transactions, so the test itself runs without one
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "admin.user-import.chunk-size=200"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserImportService.class, AuditTrail.class, UserImportServiceTest.Config.class})
+public class UserImportServiceTest {
+
+    private static final int USERS = 1_000;
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean(destroyMethod = "close")
+        BoundedPasswordEncoder passwordEncoder() {
+            return new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 4, 16, new SimpleMeterRegistry());
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        Validator validator() {
+            return Validation.buildDefaultValidatorFactory().getValidator();
+        }
+    }
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testImportJson_InsertsInJdbcBatches() throws Exception {
+        // Arrange
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < USERS; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"email\":\"staff-").append(i).append("@hospital.org\",\"password\":\"password\",")
+                    .append("\"firstname\":\"Staff\",\"lastname\":\"").append(i).append("\",\"role\":\"DOCTOR\"}");
+        }
+        json.append("]");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        UserImportResponse response = userImportService.importJson(
+                new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(USERS, response.getCreated());
+        assertEquals(0, response.getRejected());
+        assertEquals(USERS, userRepository.count());
+        assertEquals(Role.DOCTOR, userRepository.findByEmail("staff-999@hospital.org").orElseThrow().getRole());
+        // One statement per 50-row batch and per 50 sequence values, instead of one per user
+        assertTrue(statistics.getPrepareStatementCount() < 100, "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testImportCsv_ReportsResultPerRow() throws Exception {
+        // Arrange
+        userRepository.saveAndFlush(User.builder()
+                .firstname("Jane")
+                .lastname("Doe")
+                .email("jane.doe@hospital.org")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build());
+        String csv = """
+                email,password,firstname,lastname,role
+                new.nurse@hospital.org,password,New,Nurse,USER
+                Jane.Doe@hospital.org,password,Jane,Doe,USER
+                not-an-email,password,Bad,Email,USER
+                new.admin@hospital.org,password,New,Admin,SUPERUSER
+                NEW.NURSE@hospital.org,password,New,Nurse,USER
+                """;
+
+        // Act
+        UserImportResponse response = userImportService.importCsv(new BufferedReader(new StringReader(csv)));
+
+        // Assert
+        List<UserImportRow.Status> statuses = response.getRows().stream().map(UserImportRow::getStatus).toList();
+        assertEquals(List.of(UserImportRow.Status.CREATED, UserImportRow.Status.DUPLICATE,
+                UserImportRow.Status.INVALID, UserImportRow.Status.INVALID, UserImportRow.Status.DUPLICATE), statuses);
+        assertEquals(1, response.getCreated());
+        assertEquals(4, response.getRejected());
+        assertEquals("Invalid email format", response.getRows().get(2).getMessage());
+        assertTrue(new BCryptPasswordEncoder().matches("password",
+                userRepository.findByEmail("new.nurse@hospital.org").orElseThrow().getPassword()));
+    }
+}
@@ -0,0 +1,98 @@
+package com.security.drugInventory.unittest;
+
+import com.security.drugInventory.user.Role;
+import com.security.drugInventory.user.User;
+import com.security.drugInventory.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database=h2",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+public class UserRepositoryTest {
+
+    private static final int SEEDED_USERS = 100_000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testFindByEmail_IgnoresCaseAndSurroundingWhitespace() {
+        // Arrange
+        userRepository.saveAndFlush(user("Jane.Doe@Example.com"));
+
+        // Act
+        Optional<User> found = userRepository.findByEmail("  JANE.DOE@example.COM ");
+
+        // Assert
+        assertTrue(found.isPresent());
+        assertEquals("jane.doe@example.com", found.get().getEmail());
+    }
+
+    @Test
+    void testSaveAndFlush_RejectsEmailDifferingOnlyInCase() {
+        // Arrange
+        userRepository.saveAndFlush(user("jane.doe@example.com"));
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(user("JANE.DOE@EXAMPLE.COM")));
+    }
+
+    @Test
+    void testFindByEmail_UsesUniqueIndexOnLargeTable() {
+        // Arrange
+        seedUsers();
+
+        // Act
+        String plan = (String) entityManager
+                .createNativeQuery("EXPLAIN SELECT * FROM _user WHERE email = 'user-99999@example.com'")
+                .getSingleResult();
+        Optional<User> found = userRepository.findByEmail("User-99999@Example.com");
+
+        // Assert: an index lookup is O(log n); a full scan would show up as a table scan in the plan
+        assertTrue(plan.toUpperCase().contains("UK_USER_EMAIL"), plan);
+        assertFalse(plan.toUpperCase().contains("TABLESCAN"), plan);
+        assertTrue(found.isPresent());
+    }
+
+    private void seedUsers() {
+        List<Object[]> rows = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            rows.add(new Object[]{"Seed", "User", "user-" + i + "@example.com", "encodedPassword", Role.USER.name()});
+        }
+        new JdbcTemplate(dataSource).batchUpdate(
+                "INSERT INTO _user (id, age, firstname, lastname, email, password, role) "
+                        + "VALUES (NEXT VALUE FOR user_seq, 0, ?, ?, ?, ?, ?)",
+                rows);
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .firstname("Jane")
+                .lastname("Doe")
+                .email(email)
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build();
+    }
+}